@@ -1,11 +1,14 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 
@@ -17,6 +20,8 @@ import java.util.List;
 @Validated
 @Slf4j
 public class FilmController {
+    private static final int MAX_IDS = 500;
+
     public final FilmStorage filmStorage;
     public final FilmService filmService;
 
@@ -31,16 +36,40 @@ public class FilmController {
         return filmStorage.findAll();
     }
 
+    @GetMapping(params = "ids")
+    public List<Film> findAllById(
+            @RequestParam @Size(max = MAX_IDS, message = "Можно запросить не больше " + MAX_IDS + " фильмов")
+            List<@NotNull(message = "ID фильма должен быть указан")
+            @Positive(message = "ID фильма должен быть положительным") Long> ids) {
+        log.info("GET /films?ids= - получение {} фильмов по id", ids.size());
+        return filmService.findAllById(ids);
+    }
+
     @PostMapping
     public Film add(@Valid @RequestBody Film film) {
         log.info("POST /films - добавление фильма: {}", film);
-        return filmStorage.add(film);
+        return filmService.add(film);
     }
 
     @PutMapping
     public Film update(@Valid @RequestBody Film newFilm) {
         log.info("PUT /films - обновление фильма: {}", newFilm);
-        return filmStorage.update(newFilm);
+        return filmService.update(newFilm);
+    }
+
+    @PatchMapping("/{filmId}")
+    public Film patch(
+            @PathVariable @Positive(message = "ID фильма должен быть положительным") long filmId,
+            @Valid @RequestBody FilmPatch patch) {
+        log.info("PATCH /films/{} - частичное обновление фильма: {}", filmId, patch);
+        return filmService.patchFilm(filmId, patch);
+    }
+
+    @DeleteMapping("/{filmId}")
+    public void delete(
+            @PathVariable @Positive(message = "ID фильма должен быть положительным") long filmId) {
+        log.info("DELETE /films/{} - удаление фильма", filmId);
+        filmService.delete(filmId);
     }
 
     @PutMapping("/{filmId}/like/{userId}")
@@ -62,7 +91,13 @@ public class FilmController {
     @GetMapping("/popular")
     public List<Film> getPopularFilms(
             @RequestParam(defaultValue = "10")
-            @Positive(message = "Параметр count должен быть положительным числом") int count) {
+            @Positive(message = "Параметр count должен быть положительным числом") int count,
+            @RequestParam(required = false)
+            @Positive(message = "Параметр year должен быть положительным числом") Integer year) {
+        if (year != null) {
+            log.info("GET /films/popular?year={}&count={} - получение популярных фильмов года", year, count);
+            return filmService.getPopularFilms(count, year);
+        }
         log.info("GET /films/popular?count={} - получение популярных фильмов", count);
         return filmService.getPopularFilms(count);
     }
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.model.ImportFormat;
+import ru.yandex.practicum.filmorate.model.ImportJob;
+import ru.yandex.practicum.filmorate.service.ImportService;
+
+import java.io.InputStream;
+import java.util.Collection;
+
+@RestController
+@RequestMapping("/import")
+@Slf4j
+public class ImportController {
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ImportJob startImport(@RequestParam(defaultValue = "ndjson") String format, InputStream body) {
+        log.info("POST /import?format={} - запуск импорта", format);
+        return importService.submit(body, ImportFormat.from(format));
+    }
+
+    @GetMapping
+    public Collection<ImportJob> findAllJobs() {
+        log.info("GET /import - получение всех задач импорта");
+        return importService.findAllJobs();
+    }
+
+    @GetMapping("/{jobId}")
+    public ImportJob getJob(@PathVariable String jobId) {
+        log.info("GET /import/{} - получение прогресса импорта", jobId);
+        return importService.getJob(jobId);
+    }
+}
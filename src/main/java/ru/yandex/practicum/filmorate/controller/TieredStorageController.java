@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.storage.film.TieredFilmStorage;
+import ru.yandex.practicum.filmorate.storage.tiered.CacheStats;
+import ru.yandex.practicum.filmorate.storage.user.TieredUserStorage;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/storage")
+@Profile("tiered")
+@Slf4j
+public class TieredStorageController {
+    private final TieredFilmStorage filmStorage;
+    private final TieredUserStorage userStorage;
+
+    public TieredStorageController(TieredFilmStorage filmStorage, TieredUserStorage userStorage) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, CacheStats> getStats() {
+        log.info("GET /storage/stats - статистика попаданий в горячий уровень хранилища");
+        return Map.of("films", filmStorage.getStats(), "users", userStorage.getStats());
+    }
+}
@@ -1,15 +1,26 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.model.FeedEvent;
+import ru.yandex.practicum.filmorate.model.FriendGraphStats;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
+import ru.yandex.practicum.filmorate.service.FeedService;
+import ru.yandex.practicum.filmorate.service.FriendGraphAnalyticsService;
+import ru.yandex.practicum.filmorate.service.FriendPathService;
 import ru.yandex.practicum.filmorate.service.UserService;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -17,12 +28,22 @@ import java.util.Set;
 @Validated
 @Slf4j
 public class UserController {
+    private static final int MAX_IDS = 500;
+
     private final UserStorage userStorage;
     private final UserService userService;
+    private final FriendGraphAnalyticsService friendGraphAnalyticsService;
+    private final FriendPathService friendPathService;
+    private final FeedService feedService;
 
-    public UserController(UserStorage userStorage, UserService userService) {
+    public UserController(UserStorage userStorage, UserService userService,
+                          FriendGraphAnalyticsService friendGraphAnalyticsService,
+                          FriendPathService friendPathService, FeedService feedService) {
         this.userStorage = userStorage;
         this.userService = userService;
+        this.friendGraphAnalyticsService = friendGraphAnalyticsService;
+        this.friendPathService = friendPathService;
+        this.feedService = feedService;
     }
 
     @GetMapping
@@ -31,6 +52,15 @@ public class UserController {
         return userStorage.findAll();
     }
 
+    @GetMapping(params = "ids")
+    public List<User> findAllById(
+            @RequestParam @Size(max = MAX_IDS, message = "Можно запросить не больше " + MAX_IDS + " пользователей")
+            List<@NotNull(message = "ID пользователя должен быть указан")
+            @Positive(message = "ID пользователя должен быть положительным") Long> ids) {
+        log.info("GET /users?ids= - получение {} пользователей по id", ids.size());
+        return userService.findAllById(ids);
+    }
+
     @PostMapping
     public User create(@Valid @RequestBody User user) {
         log.info("POST /users - добавление пользователя: {}", user);
@@ -43,6 +73,39 @@ public class UserController {
         return userStorage.update(newUser);
     }
 
+    @GetMapping("/by-email")
+    public User findByEmail(@RequestParam @NotBlank(message = "Email не может быть пустым") String email) {
+        log.info("GET /users/by-email?email={} - поиск пользователя по email", email);
+        return userService.findByEmail(email);
+    }
+
+    @GetMapping("/by-login")
+    public User findByLogin(@RequestParam @NotBlank(message = "Логин не может быть пустым") String login) {
+        log.info("GET /users/by-login?login={} - поиск пользователя по логину", login);
+        return userService.findByLogin(login);
+    }
+
+    @GetMapping("/graph/stats")
+    public FriendGraphStats getFriendGraphStats() {
+        log.info("GET /users/graph/stats - получение статистики графа друзей");
+        return friendGraphAnalyticsService.getStats();
+    }
+
+    @PatchMapping("/{userId}")
+    public User patch(
+            @PathVariable @Positive(message = "ID пользователя должен быть положительным") long userId,
+            @Valid @RequestBody UserPatch patch) {
+        log.info("PATCH /users/{} - частичное обновление пользователя: {}", userId, patch);
+        return userService.patchUser(userId, patch);
+    }
+
+    @DeleteMapping("/{userId}")
+    public void delete(
+            @PathVariable @Positive(message = "ID пользователя должен быть положительным") long userId) {
+        log.info("DELETE /users/{} - удаление пользователя", userId);
+        userService.delete(userId);
+    }
+
     @GetMapping("/{userId}/friends")
     public Set<User> findAllFriends(
             @PathVariable @Positive(message = "ID пользователя должен быть положительным") long userId) {
@@ -73,4 +136,24 @@ public class UserController {
         log.info("GET /users/{}/friends/common/{} - поиск общих друзей", userId, otherId);
         return userService.getCommonFriends(userId, otherId);
     }
+
+    @GetMapping("/{userId}/path/{otherId}")
+    public List<User> findFriendPath(
+            @PathVariable @Positive(message = "ID пользователя должен быть положительным") long userId,
+            @PathVariable @Positive(message = "ID другого пользователя должен быть положительным") long otherId,
+            @RequestParam(defaultValue = "6") @Positive(message = "maxDepth должен быть положительным")
+            @Max(value = 255, message = "maxDepth не может превышать 255") int maxDepth) {
+        log.info("GET /users/{}/path/{}?maxDepth={} - поиск цепочки друзей", userId, otherId, maxDepth);
+        return friendPathService.findPath(userId, otherId, maxDepth);
+    }
+
+    @GetMapping("/{userId}/feed")
+    public List<FeedEvent> getFeed(
+            @PathVariable @Positive(message = "ID пользователя должен быть положительным") long userId,
+            @RequestParam(defaultValue = "20") @Positive(message = "limit должен быть положительным")
+            @Max(value = 1000, message = "limit не может превышать 1000") int limit,
+            @RequestParam(required = false) @Positive(message = "before должен быть положительным") Long before) {
+        log.info("GET /users/{}/feed?limit={}&before={} - получение ленты друзей", userId, limit, before);
+        return feedService.getFeed(userId, limit, before);
+    }
 }
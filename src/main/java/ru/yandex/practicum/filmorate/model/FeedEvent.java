@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class FeedEvent {
+    private final long eventId;
+    private final Instant timestamp;
+    private final long userId;
+    private final Type type;
+    private final long entityId;
+
+    public enum Type {
+        LIKE,
+        FRIEND
+    }
+}
@@ -8,11 +8,12 @@ import jakarta.validation.constraints.Size;
 import lombok.Data;
 import ru.yandex.practicum.filmorate.settings.DurationDeserializer;
 import ru.yandex.practicum.filmorate.settings.DurationSerializer;
+import ru.yandex.practicum.filmorate.settings.LiveIdsSerializer;
 
 import java.time.Duration;
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Data
 public class Film {
@@ -27,7 +28,9 @@ public class Film {
 
     @NotNull(message = "Дата релиза обязательна")
     private LocalDate releaseDate;
-    private Set<Long> likes = new HashSet<>();
+
+    @JsonSerialize(using = LiveIdsSerializer.Users.class)
+    private Set<Long> likes = ConcurrentHashMap.newKeySet();
 
     @NotNull(message = "Продолжительность обязательна")
     @JsonSerialize(using = DurationSerializer.class)
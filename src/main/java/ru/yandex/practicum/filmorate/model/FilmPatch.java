@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Setter;
+import ru.yandex.practicum.filmorate.settings.DurationDeserializer;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Частичное обновление фильма. Jackson вызывает сеттер только для полей, которые есть в теле запроса,
+ * поэтому явный null отличается от отсутствующего поля: применяются только поля из {@link #getPresent()}.
+ */
+@Data
+public class FilmPatch {
+    public enum Field { NAME, DESCRIPTION, RELEASE_DATE, DURATION }
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private Set<Field> present = EnumSet.noneOf(Field.class);
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Название фильма не может быть пустым")
+    private String name;
+
+    @Size(max = 200, message = "Описание фильма не может превышать 200 символов")
+    @Pattern(regexp = "(?s).*\\S.*", message = "Описание фильма не может быть пустым")
+    private String description;
+
+    private LocalDate releaseDate;
+
+    @JsonDeserialize(using = DurationDeserializer.class)
+    private Duration duration;
+
+    /**
+     * Изменения из полного объекта: присутствующими считаются его ненулевые поля, как в PUT.
+     */
+    public static FilmPatch of(Film film) {
+        FilmPatch patch = new FilmPatch();
+        if (film.getName() != null) {
+            patch.setName(film.getName());
+        }
+        if (film.getDescription() != null) {
+            patch.setDescription(film.getDescription());
+        }
+        if (film.getReleaseDate() != null) {
+            patch.setReleaseDate(film.getReleaseDate());
+        }
+        if (film.getDuration() != null) {
+            patch.setDuration(film.getDuration());
+        }
+        return patch;
+    }
+
+    public boolean has(Field field) {
+        return present.contains(field);
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        present.add(Field.NAME);
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        present.add(Field.DESCRIPTION);
+    }
+
+    public void setReleaseDate(LocalDate releaseDate) {
+        this.releaseDate = releaseDate;
+        present.add(Field.RELEASE_DATE);
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+        present.add(Field.DURATION);
+    }
+}
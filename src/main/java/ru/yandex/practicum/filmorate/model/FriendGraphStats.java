@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class FriendGraphStats {
+    private Instant computedAt;
+    private long computeTimeMs;
+    private int users;
+    private long friendships;
+    private int components;
+    private int largestComponent;
+    private int isolatedUsers;
+    private Map<String, Integer> degreeHistogram;
+    private List<Hub> topHubs;
+    private double clusteringCoefficient;
+    private int clusteringSampleSize;
+
+    @Data
+    public static class Hub {
+        private final long userId;
+        private final int friendsCount;
+    }
+}
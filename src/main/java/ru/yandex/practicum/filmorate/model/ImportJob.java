@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ImportJob {
+    private static final int MAX_ERRORS = 20;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final ImportFormat format;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+
+    public ImportJob(String id, ImportFormat format) {
+        this.id = id;
+        this.format = format;
+    }
+
+    public void rowsRead(long count) {
+        rowsRead.addAndGet(count);
+    }
+
+    public void imported(long count) {
+        rowsImported.addAndGet(count);
+    }
+
+    public void rejected(long line, String reason) {
+        rowsRejected.incrementAndGet();
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(line > 0 ? "строка " + line + ": " + reason : reason);
+        }
+    }
+
+    public void finish(Status status) {
+        this.finishedAt = Instant.now();
+        this.status = status;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsImported() {
+        return rowsImported.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public long getRowsPerSecond() {
+        long millis = Math.max(1, getElapsed().toMillis());
+        return (rowsImported.get() + rowsRejected.get()) * 1000 / millis;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    @JsonIgnore
+    public Duration getElapsed() {
+        return Duration.between(startedAt, finishedAt != null ? finishedAt : Instant.now());
+    }
+}
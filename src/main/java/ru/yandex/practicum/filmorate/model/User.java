@@ -1,11 +1,13 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.*;
 import lombok.Data;
+import ru.yandex.practicum.filmorate.settings.LiveIdsSerializer;
 
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Data
 public class User {
@@ -22,6 +24,10 @@ public class User {
 
     @Past(message = "Дата рождения не может быть в будущем")
     private LocalDate birthday;
-    private Set<Long> friendsId = new HashSet<>();
-    private Set<Long> likedFilmId = new HashSet<>();
+
+    @JsonSerialize(using = LiveIdsSerializer.Users.class)
+    private Set<Long> friendsId = ConcurrentHashMap.newKeySet();
+
+    @JsonSerialize(using = LiveIdsSerializer.Films.class)
+    private Set<Long> likedFilmId = ConcurrentHashMap.newKeySet();
 }
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Pattern;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Частичное обновление пользователя. Применяются только поля из {@link #getPresent()}:
+ * явный null в name возвращает имя к логину, в birthday — стирает дату рождения.
+ */
+@Data
+public class UserPatch {
+    public enum Field { EMAIL, LOGIN, NAME, BIRTHDAY }
+
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private Set<Field> present = EnumSet.noneOf(Field.class);
+
+    @Email(message = "Некорректный формат email")
+    private String email;
+
+    @Pattern(regexp = "\\S+", message = "Логин не может быть пустым или содержать пробелы")
+    private String login;
+
+    private String name;
+
+    @Past(message = "Дата рождения не может быть в будущем")
+    private LocalDate birthday;
+
+    /**
+     * Изменения из полного объекта: присутствующими считаются его ненулевые поля, как в PUT.
+     */
+    public static UserPatch of(User user) {
+        UserPatch patch = new UserPatch();
+        if (user.getEmail() != null) {
+            patch.setEmail(user.getEmail());
+        }
+        if (user.getLogin() != null) {
+            patch.setLogin(user.getLogin());
+        }
+        if (user.getName() != null) {
+            patch.setName(user.getName());
+        }
+        if (user.getBirthday() != null) {
+            patch.setBirthday(user.getBirthday());
+        }
+        return patch;
+    }
+
+    public boolean has(Field field) {
+        return present.contains(field);
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        present.add(Field.EMAIL);
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+        present.add(Field.LOGIN);
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        present.add(Field.NAME);
+    }
+
+    public void setBirthday(LocalDate birthday) {
+        this.birthday = birthday;
+        present.add(Field.BIRTHDAY);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Сводка по событиям Filmorate из файла записи JFR: число вызовов, p50/p99/max длительности
+ * и средний размер результата по каждой операции. Запуск:
+ * java -cp target/classes ru.yandex.practicum.filmorate.profiling.JfrSummary recording.jfr
+ */
+public final class JfrSummary {
+    private static final String PREFIX = "filmorate.";
+
+    private JfrSummary() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Использование: JfrSummary <файл.jfr>");
+            System.exit(2);
+        }
+        summarize(Path.of(args[0]), System.out);
+    }
+
+    public static void summarize(Path recording, PrintStream out) throws IOException {
+        Map<String, Stats> stats = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (!type.startsWith(PREFIX)) {
+                    continue;
+                }
+                String key = type.substring(PREFIX.length()) + " " + operationOf(event);
+                stats.computeIfAbsent(key, k -> new Stats()).add(event);
+            }
+        }
+
+        out.printf("%-60s %8s %10s %10s %10s %10s%n", "событие / операция", "вызовов", "p50, мс", "p99, мс",
+                "max, мс", "размер");
+        stats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Stats> entry) -> entry.getValue().total()).reversed())
+                .forEach(entry -> entry.getValue().print(out, entry.getKey()));
+    }
+
+    private static String operationOf(RecordedEvent event) {
+        if (event.hasField("operation")) {
+            return event.getString("operation");
+        }
+        if (event.hasField("valueType")) {
+            return event.getString("valueType");
+        }
+        return "";
+    }
+
+    private static final class Stats {
+        private final List<Long> durations = new ArrayList<>();
+        private long sizeSum;
+
+        void add(RecordedEvent event) {
+            durations.add(event.getDuration().toNanos());
+            if (event.hasField("resultSize")) {
+                sizeSum += Math.max(0, event.getInt("resultSize"));
+            } else if (event.hasField("elements")) {
+                sizeSum += event.getInt("elements");
+            }
+        }
+
+        long total() {
+            return durations.stream().mapToLong(Long::longValue).sum();
+        }
+
+        void print(PrintStream out, String key) {
+            long[] sorted = durations.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            out.printf("%-60s %8d %10.3f %10.3f %10.3f %10.1f%n", key, sorted.length,
+                    millis(sorted[(sorted.length - 1) / 2]), millis(sorted[(int) ((sorted.length - 1) * 0.99)]),
+                    millis(sorted[sorted.length - 1]), (double) sizeSum / sorted.length);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
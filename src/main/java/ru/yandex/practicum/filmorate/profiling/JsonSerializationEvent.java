@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("filmorate.JsonSerialization")
+@Label("JSON Serialization")
+@Category({"Filmorate", "Web"})
+@Description("Запись тела ответа в JSON")
+@Threshold("5 ms")
+@StackTrace(false)
+public class JsonSerializationEvent extends Event {
+    @Label("Value Type")
+    String valueType;
+
+    @Label("Elements")
+    @Description("Размер коллекции в ответе, 1 для одиночного объекта")
+    int elements;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Общие поля событий хранилища и сервисов. entityId — значение параметра id или *Id или 0,
+ * resultSize — размер коллекции, 1 для одиночного объекта и -1, если вызов завершился исключением.
+ */
+abstract class OperationEvent extends Event {
+    @Label("Operation")
+    @Description("Класс и метод, например FilmService.getPopularFilms")
+    String operation;
+
+    @Label("Entity Id")
+    long entityId;
+
+    @Label("Result Size")
+    int resultSize;
+
+    @Label("Failed")
+    boolean failed;
+}
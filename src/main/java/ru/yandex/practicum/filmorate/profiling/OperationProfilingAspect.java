@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Оборачивает публичные методы хранилищ и сервисов в JFR-события. Если запись не идёт
+ * или событие выключено, вызов проходит без замеров; поля заполняются, только когда порог превышен.
+ * Цена прокси — порядка 0.1–0.2 мкс на вызов; отключается свойством filmorate.profiling.enabled=false.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "filmorate.profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class OperationProfilingAspect {
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.storage..*Storage.*(..))")
+    public Object profileStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        return profile(joinPoint, new StorageOperationEvent());
+    }
+
+    @Around("execution(public * ru.yandex.practicum.filmorate.service..*Service.*(..))")
+    public Object profileService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return profile(joinPoint, new ServiceOperationEvent());
+    }
+
+    private static Object profile(ProceedingJoinPoint joinPoint, OperationEvent event) throws Throwable {
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+        event.begin();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                        + "." + joinPoint.getSignature().getName();
+                event.entityId = entityId((MethodSignature) joinPoint.getSignature(), joinPoint.getArgs());
+                event.resultSize = failed ? -1 : sizeOf(result);
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Id сущности — первый числовой параметр с именем id или *Id (имена параметров есть в байткоде
+     * благодаря -parameters из spring-boot-starter-parent), чтобы count, limit и год не попадали в entityId.
+     */
+    static long entityId(MethodSignature signature, Object[] args) {
+        String[] names = signature.getParameterNames();
+        if (names == null) {
+            return 0;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if ((names[i].equals("id") || names[i].endsWith("Id")) && args[i] instanceof Number number) {
+                return number.longValue();
+            }
+        }
+        return 0;
+    }
+
+    static int sizeOf(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return result == null ? 0 : 1;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("filmorate.ServiceOperation")
+@Label("Service Operation")
+@Category({"Filmorate", "Service"})
+@Description("Вызов метода сервисного слоя")
+@Threshold("5 ms")
+@StackTrace(false)
+public class ServiceOperationEvent extends OperationEvent {
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("filmorate.StorageOperation")
+@Label("Storage Operation")
+@Category({"Filmorate", "Storage"})
+@Description("Вызов метода хранилища фильмов или пользователей")
+@Threshold("1 ms")
+@StackTrace(false)
+public class StorageOperationEvent extends OperationEvent {
+}
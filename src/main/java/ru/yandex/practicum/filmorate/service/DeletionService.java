@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Удаление фильмов и пользователей. Сущность помечается в {@link Tombstones} и удаляется из хранилища
+ * сразу, а обратные ссылки на неё (лайки, друзья, рейтинг) вычищаются в фоне пачками по batch-size id.
+ * Пачки выполняет один поток, и каждая следующая пачка встаёт в конец очереди, поэтому удаление
+ * пользователя с миллионом связей не занимает ядра и не задерживает очистку после других удалений.
+ * Когда все пачки удалённой сущности обработаны, её события вычищаются из ленты и запись в {@link Tombstones}
+ * снимается; id, накопившиеся к этому моменту, обрабатываются одним проходом по буферам ленты.
+ */
+@Service
+@Slf4j
+public class DeletionService {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmPopularityIndex popularityIndex;
+    private final FeedService feedService;
+    private final Tombstones tombstones;
+    private final int batchSize;
+    private final ExecutorService cleanupExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicInteger pendingTasks = new AtomicInteger();
+    private final Set<Long> cleanedFilms = ConcurrentHashMap.newKeySet();
+    private final Set<Long> cleanedUsers = ConcurrentHashMap.newKeySet();
+
+    public DeletionService(FilmStorage filmStorage, UserStorage userStorage, FilmPopularityIndex popularityIndex,
+                           FeedService feedService, Tombstones tombstones,
+                           @Value("${filmorate.cleanup.batch-size:1000}") int batchSize) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.popularityIndex = popularityIndex;
+        this.feedService = feedService;
+        this.tombstones = tombstones;
+        this.batchSize = batchSize;
+    }
+
+    public Optional<Film> deleteFilm(Long filmId) {
+        if (filmStorage.findById(filmId).isEmpty()) {
+            return Optional.empty();
+        }
+        tombstones.markFilmDeleted(filmId);
+        Optional<Film> removed = filmStorage.delete(filmId);
+        removed.ifPresent(film -> {
+            popularityIndex.remove(filmId);
+            inBatches("лайки фильма " + filmId, film.getLikes(),
+                    userIds -> userStorage.purgeLikedFilm(filmId, userIds), () -> {
+                        cleanedFilms.add(filmId);
+                        submit(this::pruneTombstones);
+                    });
+        });
+        return removed;
+    }
+
+    public Optional<User> deleteUser(Long userId) {
+        if (userStorage.findById(userId).isEmpty()) {
+            return Optional.empty();
+        }
+        tombstones.markUserDeleted(userId);
+        Optional<User> removed = userStorage.delete(userId);
+        removed.ifPresent(user -> {
+            feedService.forget(userId);
+            AtomicInteger remaining = new AtomicInteger(2);
+            Runnable onDone = () -> {
+                if (remaining.decrementAndGet() == 0) {
+                    cleanedUsers.add(userId);
+                    submit(this::pruneTombstones);
+                }
+            };
+            inBatches("друзья пользователя " + userId, user.getFriendsId(),
+                    friendIds -> userStorage.purgeFriendsOf(userId, friendIds), onDone);
+            inBatches("лайки пользователя " + userId, user.getLikedFilmId(),
+                    filmIds -> filmStorage.purgeLikesOf(userId, filmIds)
+                            .forEach(filmId -> popularityIndex.adjustLikes(filmId, -1)), onDone);
+        });
+        return removed;
+    }
+
+    public boolean isCleanupIdle() {
+        return pendingTasks.get() == 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleanupExecutor.shutdownNow();
+    }
+
+    /**
+     * Снимок множества делается уже в фоновом потоке: удалённая сущность недоступна другим запросам,
+     * так что её множества больше не меняются. onDone выполняется после последней пачки.
+     */
+    private void inBatches(String description, Set<Long> ids, Consumer<List<Long>> action, Runnable onDone) {
+        submit(() -> {
+            Long[] snapshot = ids.toArray(new Long[0]);
+            log.info("Фоновая очистка: {} — {} id", description, snapshot.length);
+            submitBatch(description, snapshot, 0, action, onDone);
+        });
+    }
+
+    private void submitBatch(String description, Long[] ids, int from, Consumer<List<Long>> action,
+                             Runnable onDone) {
+        if (from >= ids.length) {
+            onDone.run();
+            return;
+        }
+        submit(() -> {
+            int to = Math.min(ids.length, from + batchSize);
+            try {
+                action.accept(Arrays.asList(ids).subList(from, to));
+            } catch (RuntimeException e) {
+                log.error("Ошибка фоновой очистки: {}, id {}..{}", description, from, to, e);
+            }
+            submitBatch(description, ids, to, action, onDone);
+        });
+    }
+
+    /**
+     * Сначала дожидается добавлений связей, начатых до удаления: они сверятся с ещё не снятыми записями
+     * и откатятся, а счётчик рейтинга, созданный ими для удалённого фильма, убирается здесь же.
+     * События ленты вычищаются до снятия записей, иначе читатель увидел бы их без фильтра по {@link Tombstones}.
+     */
+    private void pruneTombstones() {
+        Set<Long> films = drain(cleanedFilms);
+        Set<Long> users = drain(cleanedUsers);
+        if (films.isEmpty() && users.isEmpty()) {
+            return;
+        }
+        tombstones.awaitWriters();
+        films.forEach(popularityIndex::remove);
+        feedService.purge(users, films);
+        tombstones.pruneFilms(films);
+        tombstones.pruneUsers(users);
+        log.info("Фоновая очистка завершена: фильмов {}, пользователей {}", films.size(), users.size());
+    }
+
+    private static Set<Long> drain(Set<Long> ids) {
+        Set<Long> drained = new HashSet<>();
+        for (Long id : ids) {
+            if (ids.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+
+    private void submit(Runnable task) {
+        if (cleanupExecutor.isShutdown()) {
+            return;
+        }
+        pendingTasks.incrementAndGet();
+        cleanupExecutor.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                pendingTasks.decrementAndGet();
+            }
+        });
+    }
+}
@@ -0,0 +1,295 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.FeedEvent;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Лента действий друзей. Событие обычного пользователя сразу раскладывается во входящие кольцевые буферы
+ * его друзей (fan-out on write). Пользователь с числом друзей больше fan-out-limit пишет только в свой
+ * исходящий буфер, а читатели подмешивают его при чтении (fan-out on read), так что цена записи ограничена.
+ * Когда число друзей снова не больше fan-out-limit, пользователь возвращается к fan-out on write,
+ * а его исходящий буфер один раз подмешивается во входящие буферы друзей.
+ * Буферы — массивы long фиксированной ёмкости, поэтому память на пользователя не превышает
+ * двух буферов по capacity событий.
+ */
+@Service
+@Slf4j
+public class FeedService {
+    private static final int SLOT = 4;
+    private static final int TYPE_BITS = 1;
+
+    private final UserStorage userStorage;
+    private final Tombstones tombstones;
+    private final int capacity;
+    private final int fanOutLimit;
+    private final AtomicLong lastEventId = new AtomicLong();
+    private final Map<Long, Ring> inboxes = new ConcurrentHashMap<>();
+    private final Map<Long, Ring> outboxes = new ConcurrentHashMap<>();
+    private final Set<Long> highDegreeUsers = ConcurrentHashMap.newKeySet();
+
+    public FeedService(UserStorage userStorage, Tombstones tombstones,
+                       @Value("${filmorate.feed.capacity:50}") int capacity,
+                       @Value("${filmorate.feed.fan-out-limit:1000}") int fanOutLimit) {
+        this.userStorage = userStorage;
+        this.tombstones = tombstones;
+        this.capacity = capacity;
+        this.fanOutLimit = fanOutLimit;
+    }
+
+    public void onLike(long userId, long filmId) {
+        publish(userId, FeedEvent.Type.LIKE, filmId);
+    }
+
+    public void onFriend(long userId, long friendId) {
+        publish(userId, FeedEvent.Type.FRIEND, friendId);
+    }
+
+    /**
+     * Сбрасывает буферы удалённого пользователя. Его события в чужих буферах отфильтровываются при чтении.
+     */
+    public void forget(long userId) {
+        inboxes.remove(userId);
+        outboxes.remove(userId);
+        highDegreeUsers.remove(userId);
+    }
+
+    /**
+     * Убирает из всех буферов события удалённых пользователей и события о них и об удалённых фильмах.
+     * Обходит все буферы, поэтому вызывается фоновой очисткой сразу для накопившихся id.
+     */
+    public void purge(Set<Long> userIds, Set<Long> filmIds) {
+        inboxes.values().forEach(ring -> ring.removeEvents(userIds, filmIds));
+        outboxes.values().forEach(ring -> ring.removeEvents(userIds, filmIds));
+    }
+
+    public List<FeedEvent> getFeed(long userId, int limit, Long beforeEventId) {
+        User user = userStorage.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
+        Set<Long> friends = user.getFriendsId();
+        long before = beforeEventId == null ? Long.MAX_VALUE : beforeEventId;
+
+        List<long[]> sources = new ArrayList<>();
+        addSnapshot(sources, inboxes.get(userId), before);
+        if (highDegreeUsers.size() < friends.size()) {
+            for (Long candidate : highDegreeUsers) {
+                if (friends.contains(candidate)) {
+                    addSnapshot(sources, outboxes.get(candidate), before);
+                }
+            }
+        } else {
+            for (Long friend : friends) {
+                if (highDegreeUsers.contains(friend)) {
+                    addSnapshot(sources, outboxes.get(friend), before);
+                }
+            }
+        }
+        return merge(sources, friends, limit);
+    }
+
+    private void publish(long actorId, FeedEvent.Type type, long entityId) {
+        long eventId = lastEventId.incrementAndGet();
+        long meta = System.currentTimeMillis() << TYPE_BITS | type.ordinal();
+        outboxes.computeIfAbsent(actorId, id -> new Ring(capacity)).push(eventId, actorId, entityId, meta);
+
+        int friendCount = userStorage.countFriends(actorId);
+        if (friendCount > fanOutLimit) {
+            if (highDegreeUsers.add(actorId)) {
+                log.info("Пользователь ID {} переведён на чтение ленты из исходящего буфера: друзей {}",
+                        actorId, friendCount);
+            }
+            return;
+        }
+        Set<Long> friends = userStorage.findFriendIds(actorId);
+        if (highDegreeUsers.remove(actorId)) {
+            long[] outbox = outboxes.get(actorId).snapshot(eventId);
+            for (Long friend : friends) {
+                inboxes.computeIfAbsent(friend, id -> new Ring(capacity)).backfill(outbox);
+            }
+            log.info("Пользователь ID {} возвращён к раскладке событий по друзьям: друзей {}", actorId, friendCount);
+        }
+        for (Long friend : friends) {
+            inboxes.computeIfAbsent(friend, id -> new Ring(capacity)).push(eventId, actorId, entityId, meta);
+        }
+    }
+
+    private static void addSnapshot(List<long[]> sources, Ring ring, long before) {
+        if (ring != null) {
+            long[] snapshot = ring.snapshot(before);
+            if (snapshot.length > 0) {
+                sources.add(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Слияние снимков буферов, каждый уже упорядочен от новых событий к старым. События, попавшие
+     * и во входящий, и в исходящий буфер, склеиваются по eventId; события бывших друзей
+     * и события об удалённых пользователях и фильмах пропускаются.
+     */
+    private List<FeedEvent> merge(List<long[]> sources, Set<Long> friends, int limit) {
+        int[] positions = new int[sources.size()];
+        List<FeedEvent> page = new ArrayList<>(limit);
+        long lastTaken = Long.MAX_VALUE;
+        while (page.size() < limit) {
+            int best = -1;
+            long bestId = 0;
+            for (int i = 0; i < positions.length; i++) {
+                long[] source = sources.get(i);
+                if (positions[i] < source.length && (best < 0 || source[positions[i]] > bestId)) {
+                    best = i;
+                    bestId = source[positions[i]];
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            long[] source = sources.get(best);
+            int offset = positions[best];
+            positions[best] += SLOT;
+            long actorId = source[offset + 1];
+            long meta = source[offset + 3];
+            FeedEvent.Type type = FeedEvent.Type.values()[(int) (meta & 1)];
+            if (bestId == lastTaken || !friends.contains(actorId) || isDeleted(actorId, type, source[offset + 2])) {
+                continue;
+            }
+            lastTaken = bestId;
+            page.add(new FeedEvent(bestId, Instant.ofEpochMilli(meta >>> TYPE_BITS), actorId, type,
+                    source[offset + 2]));
+        }
+        return page;
+    }
+
+    private boolean isDeleted(long actorId, FeedEvent.Type type, long entityId) {
+        return tombstones.isUserDeleted(actorId) || (type == FeedEvent.Type.LIKE
+                ? tombstones.isFilmDeleted(entityId)
+                : tombstones.isUserDeleted(entityId));
+    }
+
+    /**
+     * Кольцевой буфер событий: на событие четыре long подряд — id, автор, объект, время и тип.
+     */
+    private static final class Ring {
+        private final long[] slots;
+        private int next;
+        private int size;
+
+        private Ring(int capacity) {
+            this.slots = new long[capacity * SLOT];
+        }
+
+        synchronized void push(long eventId, long actorId, long entityId, long meta) {
+            int offset = next * SLOT;
+            slots[offset] = eventId;
+            slots[offset + 1] = actorId;
+            slots[offset + 2] = entityId;
+            slots[offset + 3] = meta;
+            int capacity = slots.length / SLOT;
+            next = (next + 1) % capacity;
+            size = Math.min(size + 1, capacity);
+        }
+
+        /**
+         * Подмешивает упорядоченные от новых к старым события и оставляет capacity самых новых по id.
+         */
+        synchronized void backfill(long[] events) {
+            long[] current = snapshot(Long.MAX_VALUE);
+            int capacity = slots.length / SLOT;
+            long[] merged = new long[capacity * SLOT];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (count < capacity && (i < current.length || j < events.length)) {
+                long[] source;
+                int offset;
+                if (j >= events.length || (i < current.length && current[i] >= events[j])) {
+                    source = current;
+                    offset = i;
+                    i += SLOT;
+                } else {
+                    source = events;
+                    offset = j;
+                    j += SLOT;
+                }
+                if (count == 0 || merged[(count - 1) * SLOT] != source[offset]) {
+                    System.arraycopy(source, offset, merged, count * SLOT, SLOT);
+                    count++;
+                }
+            }
+            for (int k = 0; k < count; k++) {
+                System.arraycopy(merged, (count - 1 - k) * SLOT, slots, k * SLOT, SLOT);
+            }
+            next = count % capacity;
+            size = count;
+        }
+
+        /**
+         * Удаляет события, ссылающиеся на перечисленные id, сохраняя порядок остальных.
+         */
+        synchronized void removeEvents(Set<Long> userIds, Set<Long> filmIds) {
+            int capacity = slots.length / SLOT;
+            long[] kept = new long[size * SLOT];
+            int count = 0;
+            for (int i = size; i >= 1; i--) {
+                int offset = ((next - i + capacity) % capacity) * SLOT;
+                long entityId = slots[offset + 2];
+                boolean like = (slots[offset + 3] & 1) == FeedEvent.Type.LIKE.ordinal();
+                if (!userIds.contains(slots[offset + 1])
+                        && !(like ? filmIds.contains(entityId) : userIds.contains(entityId))) {
+                    System.arraycopy(slots, offset, kept, count * SLOT, SLOT);
+                    count++;
+                }
+            }
+            if (count < size) {
+                System.arraycopy(kept, 0, slots, 0, count * SLOT);
+                next = count % capacity;
+                size = count;
+            }
+        }
+
+        synchronized long[] snapshot(long before) {
+            int capacity = slots.length / SLOT;
+            long[] result = new long[size * SLOT];
+            int count = 0;
+            for (int i = 1; i <= size; i++) {
+                int offset = ((next - i + capacity) % capacity) * SLOT;
+                if (slots[offset] < before) {
+                    System.arraycopy(slots, offset, result, count * SLOT, SLOT);
+                    count++;
+                }
+            }
+            sortNewestFirst(result, count);
+            return count * SLOT == result.length ? result : Arrays.copyOf(result, count * SLOT);
+        }
+
+        /**
+         * Параллельные публикации могут лечь в буфер не по порядку id, но лишь локально,
+         * поэтому сортировка вставками здесь почти линейна.
+         */
+        private static void sortNewestFirst(long[] events, int count) {
+            long[] current = new long[SLOT];
+            for (int i = 1; i < count; i++) {
+                System.arraycopy(events, i * SLOT, current, 0, SLOT);
+                int j = i - 1;
+                while (j >= 0 && events[j * SLOT] < current[0]) {
+                    System.arraycopy(events, j * SLOT, events, (j + 1) * SLOT, SLOT);
+                    j--;
+                }
+                System.arraycopy(current, 0, events, (j + 1) * SLOT, SLOT);
+            }
+        }
+    }
+}
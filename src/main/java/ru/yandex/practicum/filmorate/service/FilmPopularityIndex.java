@@ -0,0 +1,164 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Рейтинги фильмов по году выхода. Для каждого года хранится упорядоченное множество
+ * (лайки по убыванию, затем id), поэтому топ-N читается за O(N) без сортировки всего каталога.
+ * Лайк увеличивает полосатый счётчик фильма и один раз ставит фильм в очередь на пересчёт.
+ * Очередь разбирает сам пишущий поток, если её сейчас не разбирает другой; пока один поток
+ * переставляет фильм, тысячи лайков вирусного фильма от остальных лишь увеличивают счётчик
+ * и сводятся к одной перестановке. Чтение топа очередь не трогает.
+ */
+@Component
+public class FilmPopularityIndex {
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt((Entry entry) -> entry.likes)
+            .reversed()
+            .thenComparingLong(entry -> entry.filmId);
+
+    private static final int UNRANKED = Integer.MIN_VALUE;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final Queue<Counter> pending = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Integer, NavigableSet<Entry>> byYear = new ConcurrentHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * Новый счётчик публикуется с нулём и только потом получает лайки из снимка фильма одним add:
+     * лайки, пришедшие раньше индексации, уже лежат в счётчике, созданном {@link #adjustLikes},
+     * и снимок к ним не прибавляется. Снимок берётся до того, как фильм становится виден
+     * для лайков (при добавлении и при восстановлении индекса на старте).
+     */
+    public void index(Film film) {
+        Counter counter = counters.get(film.getId());
+        if (counter == null) {
+            Counter created = new Counter(film.getId());
+            counter = counters.putIfAbsent(film.getId(), created);
+            if (counter == null) {
+                counter = created;
+                counter.likes.add(film.getLikes().size());
+            }
+        }
+        counter.year = film.getReleaseDate() != null ? film.getReleaseDate().getYear() : UNRANKED;
+        reposition(counter);
+    }
+
+    public void adjustLikes(Long filmId, int delta) {
+        Counter counter = counters.computeIfAbsent(filmId, Counter::new);
+        counter.likes.add(delta);
+        if (!counter.dirty.get() && counter.dirty.compareAndSet(false, true)) {
+            pending.add(counter);
+            drain();
+        }
+    }
+
+    /**
+     * Счётчик и позиция удаляются под блокировкой той же записи, что и перестановка, поэтому
+     * запоздавшая перестановка не вернёт удалённый фильм в рейтинг.
+     */
+    public void remove(Long filmId) {
+        entries.compute(filmId, (id, previous) -> {
+            counters.remove(id);
+            if (previous != null) {
+                yearSet(previous.year).remove(previous);
+            }
+            return null;
+        });
+    }
+
+    public List<Long> findTopFilmIds(int year, int count) {
+        NavigableSet<Entry> ranking = byYear.get(year);
+        if (ranking == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(count);
+        Iterator<Entry> iterator = ranking.iterator();
+        while (ids.size() < count && iterator.hasNext()) {
+            ids.add(iterator.next().filmId);
+        }
+        return ids;
+    }
+
+    /**
+     * После снятия флага очередь проверяется ещё раз: фильм, поставленный в неё, пока флаг
+     * держал другой поток, не останется неразобранным.
+     */
+    private void drain() {
+        while (!pending.isEmpty() && draining.compareAndSet(false, true)) {
+            try {
+                Counter counter;
+                while ((counter = pending.poll()) != null) {
+                    counter.dirty.set(false);
+                    reposition(counter);
+                }
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    private void reposition(Counter counter) {
+        entries.compute(counter.filmId, (id, previous) -> {
+            if (counters.get(id) != counter) {
+                return previous;
+            }
+            if (counter.year == UNRANKED) {
+                if (previous != null) {
+                    yearSet(previous.year).remove(previous);
+                }
+                return null;
+            }
+            Entry actual = new Entry(counter.filmId, counter.year, (int) counter.likes.sum());
+            if (previous != null) {
+                if (previous.year == actual.year && previous.likes == actual.likes) {
+                    return previous;
+                }
+                yearSet(previous.year).remove(previous);
+            }
+            yearSet(actual.year).add(actual);
+            return actual;
+        });
+    }
+
+    private NavigableSet<Entry> yearSet(int year) {
+        return byYear.computeIfAbsent(year, y -> new ConcurrentSkipListSet<>(ORDER));
+    }
+
+    private static final class Counter {
+        private final long filmId;
+        private final LongAdder likes = new LongAdder();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile int year = UNRANKED;
+
+        private Counter(long filmId) {
+            this.filmId = filmId;
+        }
+    }
+
+    private static final class Entry {
+        private final long filmId;
+        private final int year;
+        private final int likes;
+
+        private Entry(long filmId, int year, int likes) {
+            this.filmId = filmId;
+            this.year = year;
+            this.likes = likes;
+        }
+    }
+}
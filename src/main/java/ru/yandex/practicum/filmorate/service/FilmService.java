@@ -1,5 +1,7 @@
 package ru.yandex.practicum.filmorate.service;
 
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
@@ -8,52 +10,188 @@ import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import ru.yandex.practicum.filmorate.model.*;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class FilmService {
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final FilmPopularityIndex popularityIndex;
+    private final FeedService feedService;
+    private final DeletionService deletionService;
+    private final Tombstones tombstones;
 
-    public FilmService(FilmStorage filmStorage, UserStorage userStorage) {
+    public FilmService(FilmStorage filmStorage, UserStorage userStorage, FilmPopularityIndex popularityIndex,
+                       FeedService feedService, DeletionService deletionService, Tombstones tombstones) {
         this.filmStorage = filmStorage;
         this.userStorage = userStorage;
+        this.popularityIndex = popularityIndex;
+        this.feedService = feedService;
+        this.deletionService = deletionService;
+        this.tombstones = tombstones;
+    }
+
+    public Film add(Film film) {
+        Film added = filmStorage.add(film);
+        popularityIndex.index(added);
+        return added;
+    }
+
+    public List<Film> addAll(List<Film> films) {
+        List<Film> added = filmStorage.addAll(films);
+        added.forEach(popularityIndex::index);
+        return added;
+    }
+
+    public Film update(Film newFilm) {
+        Film updated = filmStorage.update(newFilm);
+        popularityIndex.index(updated);
+        return updated;
+    }
+
+    public void delete(Long filmId) {
+        deletionService.deleteFilm(filmId)
+                .orElseThrow(() -> new NotFoundException("Фильм с id " + filmId + " не найден"));
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void rebuildPopularityIndex() {
+        filmStorage.findAll().forEach(popularityIndex::index);
     }
 
     public void addLike(Long filmId, Long userId) {
-        Film film = getFilmById(filmId);
-        User user = getUserById(userId);
+        int write = tombstones.beginWrite();
+        try {
+            getFilmById(filmId);
+            getUserById(userId);
+
+            if (!filmStorage.addLike(filmId, userId)) {
+                throw new AlreadyExistsException("Пользователь " + userId + " уже поставил лайк фильму " + filmId);
+            }
 
-        if (film.getLikes().contains(userId)) {
-            throw new AlreadyExistsException("Пользователь " + userId + " уже поставил лайк фильму " + filmId);
+            userStorage.addLikedFilm(userId, filmId);
+            // фильм или пользователь мог быть удалён после проверки выше: фоновая очистка
+            // могла уже снять снимок его связей, поэтому лайк откатывается здесь; пока секция
+            // записи открыта, запись в Tombstones не снимется
+            if (tombstones.isFilmDeleted(filmId) || tombstones.isUserDeleted(userId)) {
+                if (!filmStorage.removeLike(filmId, userId)) {
+                    // лайк уже сняла очистка и вычла его из рейтинга, хотя он туда не попадал
+                    popularityIndex.adjustLikes(filmId, 1);
+                }
+                userStorage.removeLikedFilm(userId, filmId);
+                throw new NotFoundException("Фильм " + filmId + " или пользователь " + userId + " удалён");
+            }
+            popularityIndex.adjustLikes(filmId, 1);
+            feedService.onLike(userId, filmId);
+        } finally {
+            tombstones.endWrite(write);
         }
+    }
 
-        film.getLikes().add(userId);
-        user.getLikedFilmId().add(filmId);
+    /**
+     * Пакетное добавление лайков {filmId, userId} для импорта: лайки удалённых к этому моменту
+     * фильмов и пользователей не добавляются, события в ленту не публикуются, рейтинг сдвигается
+     * один раз на фильм. Для каждого лайка возвращает, добавлен ли он.
+     */
+    public boolean[] addLikes(List<long[]> likes) {
+        int write = tombstones.beginWrite();
+        try {
+            // пользователь мог быть удалён уже после проверки импортом, а FilmStorage пользователей
+            // не знает, поэтому их наличие проверяется здесь, внутри секции записи
+            Set<Long> userIds = new HashSet<>();
+            likes.forEach(like -> userIds.add(like[1]));
+            Set<Long> existing = userStorage.findAllById(userIds).stream()
+                    .map(User::getId)
+                    .collect(Collectors.toSet());
+            List<long[]> known = new ArrayList<>(likes.size());
+            for (long[] like : likes) {
+                if (existing.contains(like[1])) {
+                    known.add(like);
+                }
+            }
+            boolean[] inserted = filmStorage.addLikes(known);
+            boolean[] added = new boolean[likes.size()];
+            for (int i = 0, k = 0; i < likes.size(); i++) {
+                if (existing.contains(likes.get(i)[1])) {
+                    added[i] = inserted[k++];
+                }
+            }
+            List<long[]> stored = new ArrayList<>(likes.size());
+            for (int i = 0; i < added.length; i++) {
+                if (added[i]) {
+                    stored.add(likes.get(i));
+                }
+            }
+            userStorage.addLikedFilms(stored);
+
+            Map<Long, Integer> deltas = new HashMap<>();
+            for (int i = 0; i < added.length; i++) {
+                if (!added[i]) {
+                    continue;
+                }
+                long filmId = likes.get(i)[0];
+                long userId = likes.get(i)[1];
+                if (tombstones.isFilmDeleted(filmId) || tombstones.isUserDeleted(userId)) {
+                    if (!filmStorage.removeLike(filmId, userId)) {
+                        popularityIndex.adjustLikes(filmId, 1);
+                    }
+                    userStorage.removeLikedFilm(userId, filmId);
+                    added[i] = false;
+                } else {
+                    deltas.merge(filmId, 1, Integer::sum);
+                }
+            }
+            deltas.forEach(popularityIndex::adjustLikes);
+            return added;
+        } finally {
+            tombstones.endWrite(write);
+        }
     }
 
     public void removeLike(Long filmId, Long userId) {
-        Film film = getFilmById(filmId);
-        User user = getUserById(userId);
+        getFilmById(filmId);
+        getUserById(userId);
 
-        if (!film.getLikes().contains(userId)) {
+        if (!filmStorage.removeLike(filmId, userId)) {
             throw new NotFoundException("Пользователь " + userId + " не ставил лайк фильму " + filmId);
         }
 
-        film.getLikes().remove(userId);
-        user.getLikedFilmId().remove(filmId);
+        userStorage.removeLikedFilm(userId, filmId);
+        popularityIndex.adjustLikes(filmId, -1);
+    }
+
+    public List<Film> findAllById(Collection<Long> ids) {
+        return filmStorage.findAllById(new LinkedHashSet<>(ids));
+    }
+
+    public Film patchFilm(Long filmId, FilmPatch patch) {
+        Film patched = filmStorage.patch(filmId, patch);
+        if (patch.has(FilmPatch.Field.RELEASE_DATE)) {
+            popularityIndex.index(patched);
+        }
+        return patched;
     }
 
     public List<Film> getPopularFilms(int count) {
         if (count <= 0) {
             throw new ValidationException("count должен быть больше 0: count=" + count);
         }
-        return filmStorage.findAll().stream()
-                .sorted(Comparator.comparingInt((Film film) -> film.getLikes().size()).reversed())
-                .limit(count)
-                .collect(Collectors.toList());
+        return filmStorage.findPopular(count);
+    }
+
+    public List<Film> getPopularFilms(int count, int year) {
+        if (count <= 0) {
+            throw new ValidationException("count должен быть больше 0: count=" + count);
+        }
+        return filmStorage.findAllById(popularityIndex.findTopFilmIds(year, count));
     }
 
     private Film getFilmById(Long filmId) {
@@ -0,0 +1,296 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.FriendGraphStats;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+@Service
+@Slf4j
+public class FriendGraphAnalyticsService {
+    private static final int SPLIT_THRESHOLD = 4096;
+    private static final int TOP_HUBS = 10;
+    private static final int PAIRS_PER_NODE = 16;
+
+    private final UserStorage userStorage;
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final int clusteringSamples;
+    private final AtomicBoolean backgroundRefresh = new AtomicBoolean();
+    private volatile FriendGraphStats lastStats;
+
+    public FriendGraphAnalyticsService(UserStorage userStorage,
+                                       @Value("${filmorate.graph-stats.clustering-samples:10000}") int clusteringSamples) {
+        this.userStorage = userStorage;
+        this.clusteringSamples = clusteringSamples;
+    }
+
+    /**
+     * Пока первый пересчёт не завершён, отвечает 503, а не считает граф в потоке запроса.
+     */
+    public FriendGraphStats getStats() {
+        FriendGraphStats stats = lastStats;
+        if (stats == null) {
+            refreshInBackground();
+            throw new ServiceUnavailableException("Статистика графа друзей ещё рассчитывается, повторите запрос позже");
+        }
+        return stats;
+    }
+
+    /**
+     * Первый пересчёт запускается сразу после старта приложения. Флаг не даёт запросам,
+     * пришедшим до его завершения, запустить параллельные пересчёты.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshInBackground() {
+        if (lastStats != null || !backgroundRefresh.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(this::refresh, pool).whenComplete((ignored, e) -> {
+            backgroundRefresh.set(false);
+            if (e != null) {
+                log.warn("Не удалось пересчитать статистику графа друзей", e);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.graph-stats.refresh-interval-ms:60000}",
+            initialDelayString = "${filmorate.graph-stats.initial-delay-ms:60000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    public synchronized FriendGraphStats refresh() {
+        long start = System.nanoTime();
+        List<User> users = new ArrayList<>(userStorage.findAll());
+        FriendGraphStats stats = pool.submit(() -> compute(takeSnapshot(users))).join();
+        stats.setComputedAt(Instant.now());
+        stats.setComputeTimeMs((System.nanoTime() - start) / 1_000_000);
+        lastStats = stats;
+        log.info("Статистика графа друзей пересчитана за {} мс: пользователей {}, дружб {}, компонент {}",
+                stats.getComputeTimeMs(), stats.getUsers(), stats.getFriendships(), stats.getComponents());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Snapshot takeSnapshot(List<User> copy) {
+        int size = copy.size();
+        long[] ids = new long[size];
+        LongLongHashMap positions = new LongLongHashMap(size);
+        for (int i = 0; i < size; i++) {
+            ids[i] = copy.get(i).getId();
+            positions.put(ids[i], i);
+        }
+
+        int[][] adjacency = new int[size][];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            Object[] friends = copy.get(i).getFriendsId().toArray();
+            int[] neighbours = new int[friends.length];
+            int count = 0;
+            for (Object friend : friends) {
+                long position = positions.get((Long) friend, -1L);
+                if (position >= 0) {
+                    neighbours[count++] = (int) position;
+                }
+            }
+            neighbours = count == neighbours.length ? neighbours : Arrays.copyOf(neighbours, count);
+            Arrays.sort(neighbours);
+            adjacency[i] = neighbours;
+        });
+        return new Snapshot(ids, adjacency);
+    }
+
+    private FriendGraphStats compute(Snapshot snapshot) {
+        int size = snapshot.ids.length;
+        int[][] adjacency = snapshot.adjacency;
+
+        AtomicIntegerArray parent = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            parent.set(i, i);
+        }
+        new UnionTask(adjacency, parent, 0, size).invoke();
+
+        int[] componentSizes = new int[size];
+        for (int i = 0; i < size; i++) {
+            componentSizes[find(parent, i)]++;
+        }
+
+        FriendGraphStats stats = new FriendGraphStats();
+        stats.setUsers(size);
+        stats.setFriendships(IntStream.range(0, size).parallel().mapToLong(i -> adjacency[i].length).sum() / 2);
+        stats.setComponents((int) IntStream.range(0, size).filter(i -> componentSizes[i] > 0).count());
+        stats.setLargestComponent(IntStream.of(componentSizes).max().orElse(0));
+        stats.setIsolatedUsers((int) IntStream.range(0, size).parallel().filter(i -> adjacency[i].length == 0).count());
+        stats.setDegreeHistogram(degreeHistogram(adjacency));
+        stats.setTopHubs(topHubs(snapshot));
+        estimateClustering(adjacency, stats);
+        return stats;
+    }
+
+    private Map<String, Integer> degreeHistogram(int[][] adjacency) {
+        int[] buckets = new int[33];
+        for (int[] neighbours : adjacency) {
+            int degree = neighbours.length;
+            buckets[32 - Integer.numberOfLeadingZeros(degree)]++;
+        }
+        Map<String, Integer> histogram = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            if (buckets[bucket] == 0) {
+                continue;
+            }
+            if (bucket <= 1) {
+                histogram.put(String.valueOf(bucket), buckets[bucket]);
+            } else {
+                int from = 1 << (bucket - 1);
+                histogram.put(from + "-" + ((from << 1) - 1), buckets[bucket]);
+            }
+        }
+        return histogram;
+    }
+
+    private List<FriendGraphStats.Hub> topHubs(Snapshot snapshot) {
+        PriorityQueue<Integer> top = new PriorityQueue<>(Comparator.comparingInt(i -> snapshot.adjacency[i].length));
+        for (int i = 0; i < snapshot.ids.length; i++) {
+            if (top.size() < TOP_HUBS) {
+                top.add(i);
+            } else if (snapshot.adjacency[i].length > snapshot.adjacency[top.peek()].length) {
+                top.poll();
+                top.add(i);
+            }
+        }
+        List<FriendGraphStats.Hub> hubs = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int i = top.poll();
+            hubs.add(new FriendGraphStats.Hub(snapshot.ids[i], snapshot.adjacency[i].length));
+        }
+        hubs.sort(Comparator.comparingInt(FriendGraphStats.Hub::getFriendsCount).reversed());
+        return hubs;
+    }
+
+    private void estimateClustering(int[][] adjacency, FriendGraphStats stats) {
+        int[] candidates = IntStream.range(0, adjacency.length).filter(i -> adjacency[i].length >= 2).toArray();
+        int samples = Math.min(clusteringSamples, candidates.length);
+        stats.setClusteringSampleSize(samples);
+        if (samples == 0) {
+            return;
+        }
+        long seed = new SplittableRandom().nextLong();
+        double sum = IntStream.range(0, samples).parallel().mapToDouble(sample -> {
+            SplittableRandom random = new SplittableRandom(seed + sample);
+            int[] neighbours = adjacency[candidates[samples == candidates.length ? sample
+                    : random.nextInt(candidates.length)]];
+            int closed = 0;
+            for (int pair = 0; pair < PAIRS_PER_NODE; pair++) {
+                int a = neighbours[random.nextInt(neighbours.length)];
+                int b = neighbours[random.nextInt(neighbours.length)];
+                while (b == a) {
+                    b = neighbours[random.nextInt(neighbours.length)];
+                }
+                if (Arrays.binarySearch(adjacency[a], b) >= 0) {
+                    closed++;
+                }
+            }
+            return (double) closed / PAIRS_PER_NODE;
+        }).sum();
+        stats.setClusteringCoefficient(sum / samples);
+    }
+
+    private static int find(AtomicIntegerArray parent, int node) {
+        while (true) {
+            int p = parent.get(node);
+            if (p == node) {
+                return node;
+            }
+            int grandParent = parent.get(p);
+            if (grandParent != p) {
+                parent.compareAndSet(node, p, grandParent);
+            }
+            node = p;
+        }
+    }
+
+    private static void union(AtomicIntegerArray parent, int a, int b) {
+        while (true) {
+            a = find(parent, a);
+            b = find(parent, b);
+            if (a == b) {
+                return;
+            }
+            if (a < b) {
+                int tmp = a;
+                a = b;
+                b = tmp;
+            }
+            if (parent.compareAndSet(a, a, b)) {
+                return;
+            }
+        }
+    }
+
+    private static class UnionTask extends RecursiveAction {
+        private final int[][] adjacency;
+        private final AtomicIntegerArray parent;
+        private final int from;
+        private final int to;
+
+        UnionTask(int[][] adjacency, AtomicIntegerArray parent, int from, int to) {
+            this.adjacency = adjacency;
+            this.parent = parent;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int node = from; node < to; node++) {
+                    for (int neighbour : adjacency[node]) {
+                        if (neighbour != node) {
+                            union(parent, node, neighbour);
+                        }
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new UnionTask(adjacency, parent, from, middle), new UnionTask(adjacency, parent, middle, to));
+        }
+    }
+
+    private static class Snapshot {
+        private final long[] ids;
+        private final int[][] adjacency;
+
+        Snapshot(long[] ids, int[][] adjacency) {
+            this.ids = ids;
+            this.adjacency = adjacency;
+        }
+    }
+}
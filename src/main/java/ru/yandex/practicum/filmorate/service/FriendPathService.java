@@ -0,0 +1,169 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кратчайшая цепочка друзей между двумя пользователями. Двунаправленный BFS каждый раз
+ * расширяет меньший фронт; посещённые вершины хранятся в примитивных таблицах id -> (родитель, глубина).
+ * Поиск ограничен числом посещённых вершин и временем, чтобы хабы не раздували задержку и память.
+ */
+@Service
+@Slf4j
+public class FriendPathService {
+    private static final int MAX_DEPTH = 255;
+    private static final int DEPTH_BITS = 8;
+    private static final int TIME_CHECK_MASK = 255;
+
+    private final UserStorage userStorage;
+    private final Tombstones tombstones;
+    private final int maxVisited;
+    private final long timeoutNanos;
+
+    public FriendPathService(UserStorage userStorage, Tombstones tombstones,
+                             @Value("${filmorate.friend-path.max-visited:1000000}") int maxVisited,
+                             @Value("${filmorate.friend-path.timeout-ms:1000}") long timeoutMs) {
+        this.userStorage = userStorage;
+        this.tombstones = tombstones;
+        this.maxVisited = maxVisited;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    public List<User> findPath(Long userId, Long otherId, int maxDepth) {
+        if (maxDepth <= 0 || maxDepth > MAX_DEPTH) {
+            throw new ValidationException("maxDepth должен быть от 1 до " + MAX_DEPTH + ": maxDepth=" + maxDepth);
+        }
+        User user = getUserById(userId);
+        getUserById(otherId);
+        if (userId.equals(otherId)) {
+            return List.of(user);
+        }
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        Side forward = new Side(userId);
+        Side backward = new Side(otherId);
+        while (forward.depth + backward.depth < maxDepth && forward.size > 0 && backward.size > 0) {
+            Side side = forward.size <= backward.size ? forward : backward;
+            Side other = side == forward ? backward : forward;
+            long meeting = expand(side, other, forward.visited.size() + backward.visited.size(), deadline);
+            if (meeting == -1) {
+                log.warn("Поиск пути между пользователями ID {} и ID {} прерван: посещено {} вершин",
+                        userId, otherId, forward.visited.size() + backward.visited.size());
+                throw new NotFoundException("Путь между пользователями " + userId + " и " + otherId
+                        + " не найден: превышен лимит поиска");
+            }
+            if (meeting != 0) {
+                log.debug("Путь между пользователями ID {} и ID {} найден, посещено {} вершин",
+                        userId, otherId, forward.visited.size() + backward.visited.size());
+                return toUsers(forward, backward, meeting);
+            }
+        }
+        throw new NotFoundException("Путь между пользователями " + userId + " и " + otherId
+                + " длиной не более " + maxDepth + " не найден");
+    }
+
+    /**
+     * Расширяет фронт стороны на один уровень. Возвращает вершину встречи с кратчайшим суммарным путём,
+     * 0 если встречи не было и -1 если превышен лимит.
+     */
+    private long expand(Side side, Side other, int visitedBefore, long deadline) {
+        long[] next = new long[Math.max(16, side.size)];
+        int nextSize = 0;
+        int visited = visitedBefore;
+        long meeting = 0;
+        int meetingDepth = Integer.MAX_VALUE;
+        int depth = side.depth + 1;
+
+        for (int i = 0; i < side.size; i++) {
+            if ((i & TIME_CHECK_MASK) == 0 && System.nanoTime() > deadline) {
+                return -1;
+            }
+            long node = side.frontier[i];
+            for (Long friend : userStorage.findFriendIds(node)) {
+                if (side.visited.containsKey(friend) || tombstones.isUserDeleted(friend)) {
+                    continue;
+                }
+                side.visited.put(friend, pack(node, depth));
+                if (++visited > maxVisited) {
+                    return -1;
+                }
+                long otherEntry = other.visited.get(friend, -1L);
+                if (otherEntry >= 0) {
+                    int otherDepth = depthOf(otherEntry);
+                    if (otherDepth < meetingDepth) {
+                        meeting = friend;
+                        meetingDepth = otherDepth;
+                    }
+                } else {
+                    if (nextSize == next.length) {
+                        next = Arrays.copyOf(next, nextSize << 1);
+                    }
+                    next[nextSize++] = friend;
+                }
+            }
+        }
+        side.frontier = next;
+        side.size = nextSize;
+        side.depth = depth;
+        return meeting;
+    }
+
+    private List<User> toUsers(Side forward, Side backward, long meeting) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = meeting; id != 0; id = parentOf(forward.visited.get(id, 0L))) {
+            ids.add(id);
+        }
+        Collections.reverse(ids);
+        for (long id = parentOf(backward.visited.get(meeting, 0L)); id != 0;
+             id = parentOf(backward.visited.get(id, 0L))) {
+            ids.add(id);
+        }
+        List<User> path = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            path.add(getUserById(id));
+        }
+        return path;
+    }
+
+    private User getUserById(Long userId) {
+        return userStorage.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
+    }
+
+    private static long pack(long parent, int depth) {
+        return parent << DEPTH_BITS | depth;
+    }
+
+    private static long parentOf(long entry) {
+        return entry >>> DEPTH_BITS;
+    }
+
+    private static int depthOf(long entry) {
+        return (int) (entry & MAX_DEPTH);
+    }
+
+    private static final class Side {
+        private final LongLongHashMap visited = new LongLongHashMap();
+        private long[] frontier;
+        private int size;
+        private int depth;
+
+        private Side(long root) {
+            visited.put(root, pack(0, 0));
+            frontier = new long[]{root};
+            size = 1;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.ImportFormat;
+import ru.yandex.practicum.filmorate.model.ImportJob;
+
+import java.nio.file.Path;
+
+/**
+ * Офлайн-режим импорта: java -jar filmorate.jar --filmorate.import.file=data.ndjson
+ * [--filmorate.import.format=csv] [--spring.main.web-application-type=none].
+ * Без веб-сервера приложение завершается после импорта с кодом 0 или 1.
+ */
+@Component
+@ConditionalOnProperty("filmorate.import.file")
+@Slf4j
+public class ImportRunner implements ApplicationRunner {
+    private final ImportService importService;
+    private final ConfigurableApplicationContext context;
+    private final Path file;
+    private final String format;
+
+    public ImportRunner(ImportService importService, ConfigurableApplicationContext context,
+                        @Value("${filmorate.import.file}") Path file,
+                        @Value("${filmorate.import.format:}") String format) {
+        this.importService = importService;
+        this.context = context;
+        this.file = file;
+        this.format = format;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ImportFormat importFormat = format.isBlank()
+                ? ImportFormat.fromFileName(file.getFileName().toString())
+                : ImportFormat.from(format);
+        ImportJob job = importService.importFile(file, importFormat);
+        log.info("Импорт файла {}: статус {}, импортировано {}, отклонено {}, {} строк/с",
+                file, job.getStatus(), job.getRowsImported(), job.getRowsRejected(), job.getRowsPerSecond());
+        job.getErrors().forEach(error -> log.warn("Отклонено: {}", error));
+
+        if (!(context instanceof WebServerApplicationContext)) {
+            int exitCode = job.getStatus() == ImportJob.Status.COMPLETED ? 0 : 1;
+            System.exit(SpringApplication.exit(context, () -> exitCode));
+        }
+    }
+}
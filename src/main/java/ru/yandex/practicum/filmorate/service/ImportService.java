@@ -0,0 +1,679 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportFormat;
+import ru.yandex.practicum.filmorate.model.ImportJob;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmFields;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Потоковый импорт фильмов, пользователей, лайков и дружб из NDJSON или CSV.
+ * Конвейер: чтение строк пачками -> параллельный разбор и валидация -> один писатель,
+ * который вставляет пакетами и сущности, и связи. Между стадиями — ограниченные очереди,
+ * поэтому память не растёт при медленной записи.
+ * В файле сущности ссылаются друг на друга по собственным id (поле id), писатель переводит их в id хранилища.
+ * Связь на сущность, которой ещё не было в файле, откладывается до конца импорта (не больше max-deferred-edges),
+ * а не найденная и к концу — отклоняется. Завершённые задачи хранятся job-retention-minutes.
+ */
+@Service
+@Slf4j
+public class ImportService {
+    private static final int CHUNK_LINES = 1000;
+
+    private final FilmService filmService;
+    private final UserService userService;
+    private final UserStorage userStorage;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int parallelism;
+    private final int queueCapacity;
+    private final int maxDeferredEdges;
+    private final Duration jobRetention;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService jobExecutor = Executors.newCachedThreadPool();
+
+    public ImportService(FilmService filmService, UserService userService, UserStorage userStorage,
+                         ObjectMapper objectMapper, Validator validator,
+                         @Value("${filmorate.import.parallelism:0}") int parallelism,
+                         @Value("${filmorate.import.queue-capacity:64}") int queueCapacity,
+                         @Value("${filmorate.import.max-deferred-edges:1000000}") int maxDeferredEdges,
+                         @Value("${filmorate.import.job-retention-minutes:60}") long jobRetentionMinutes) {
+        this.filmService = filmService;
+        this.userService = userService;
+        this.userStorage = userStorage;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.maxDeferredEdges = maxDeferredEdges;
+        this.jobRetention = Duration.ofMinutes(jobRetentionMinutes);
+    }
+
+    public ImportJob submit(InputStream body, ImportFormat format) {
+        Path file;
+        try {
+            file = Files.createTempFile("filmorate-import-", "." + format.name().toLowerCase());
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить файл импорта", e);
+        }
+        ImportJob job = newJob(format);
+        jobExecutor.submit(() -> {
+            try {
+                run(job, file);
+            } finally {
+                deleteQuietly(file);
+            }
+        });
+        return job;
+    }
+
+    public ImportJob importFile(Path file, ImportFormat format) {
+        ImportJob job = newJob(format);
+        run(job, file);
+        return job;
+    }
+
+    public ImportJob getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new NotFoundException("Задача импорта " + jobId + " не найдена");
+        }
+        return job;
+    }
+
+    public Collection<ImportJob> findAllJobs() {
+        evictFinishedJobs();
+        return jobs.values();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    private ImportJob newJob(ImportFormat format) {
+        evictFinishedJobs();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    private void evictFinishedJobs() {
+        Instant threshold = Instant.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(threshold));
+    }
+
+    private void run(ImportJob job, Path file) {
+        log.info("Импорт {} запущен: файл {}, формат {}, потоков разбора {}",
+                job.getId(), file, job.getFormat(), parallelism);
+        BlockingQueue<LineChunk> lines = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ParsedChunk> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService stages = Executors.newFixedThreadPool(parallelism + 1);
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                stages.submit(() -> parseLoop(job, lines, parsed));
+            }
+            Future<?> writer = stages.submit(() -> writeLoop(job, parsed));
+            try {
+                readLines(job, file, lines);
+            } finally {
+                for (int i = 0; i < parallelism; i++) {
+                    lines.put(LineChunk.END);
+                }
+            }
+            writer.get();
+            job.finish(ImportJob.Status.COMPLETED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ImportJob.Status.FAILED);
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            log.error("Импорт {} завершился ошибкой", job.getId(), e);
+            job.rejected(0, "импорт прерван: " + e.getMessage());
+            job.finish(ImportJob.Status.FAILED);
+        } finally {
+            stages.shutdownNow();
+        }
+        log.info("Импорт {} завершён со статусом {} за {} мс: импортировано {}, отклонено {}, {} строк/с",
+                job.getId(), job.getStatus(), job.getElapsed().toMillis(), job.getRowsImported(),
+                job.getRowsRejected(), job.getRowsPerSecond());
+    }
+
+    private void readLines(ImportJob job, Path file, BlockingQueue<LineChunk> lines)
+            throws IOException, InterruptedException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            long lineNumber = 0;
+            long firstLine = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                chunk.add(line);
+                if (chunk.size() == CHUNK_LINES) {
+                    lines.put(new LineChunk(firstLine, chunk));
+                    job.rowsRead(chunk.size());
+                    chunk = new ArrayList<>(CHUNK_LINES);
+                    firstLine = lineNumber + 1;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                lines.put(new LineChunk(firstLine, chunk));
+                job.rowsRead(chunk.size());
+            }
+        }
+    }
+
+    private void parseLoop(ImportJob job, BlockingQueue<LineChunk> lines, BlockingQueue<ParsedChunk> parsed) {
+        try {
+            while (true) {
+                LineChunk chunk = lines.take();
+                if (chunk == LineChunk.END) {
+                    break;
+                }
+                parsed.put(parse(job, chunk));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            postEnd(parsed);
+        }
+    }
+
+    /**
+     * Писатель ждёт END от каждого потока разбора, поэтому END ставится и после прерывания.
+     * Флаг прерывания снимается на время put и восстанавливается после; повторное прерывание
+     * (остановка всего импорта) отменяет ожидание.
+     */
+    private static void postEnd(BlockingQueue<ParsedChunk> parsed) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            parsed.put(ParsedChunk.END);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ParsedChunk parse(ImportJob job, LineChunk chunk) {
+        ParsedChunk result = new ParsedChunk(chunk.firstLine);
+        long lineNumber = chunk.firstLine;
+        for (String line : chunk.lines) {
+            try {
+                parseLine(job.getFormat(), line, lineNumber, result);
+            } catch (RuntimeException e) {
+                job.rejected(lineNumber, e.getMessage());
+            }
+            lineNumber++;
+        }
+        return result;
+    }
+
+    private void parseLine(ImportFormat format, String line, long lineNumber, ParsedChunk result) {
+        if (line.isBlank()) {
+            return;
+        }
+        Row row = format == ImportFormat.CSV ? parseCsv(line) : parseJson(line);
+        switch (row.type) {
+            case "header" -> {
+            }
+            case "film" -> {
+                Film film = row.film;
+                validate(film);
+                FilmFields.validateFilm(film);
+                result.films.add(film);
+                result.filmIds.add(row.id);
+                result.filmLines.add(lineNumber);
+            }
+            case "user" -> {
+                validate(row.user);
+                result.users.add(row.user);
+                result.userIds.add(row.id);
+                result.userLines.add(lineNumber);
+            }
+            case "like" -> result.likes.add(new long[]{row.first, row.second, lineNumber});
+            case "friend" -> result.friends.add(new long[]{row.first, row.second, lineNumber});
+            default -> throw new IllegalArgumentException("неизвестный тип записи: " + row.type);
+        }
+    }
+
+    private Row parseJson(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            String type = node.path("type").asText();
+            Row row = new Row(type);
+            row.id = optionalId(node);
+            switch (type) {
+                case "film" -> {
+                    row.film = objectMapper.treeToValue(node, Film.class);
+                    row.film.setId(null);
+                }
+                case "user" -> {
+                    row.user = objectMapper.treeToValue(node, User.class);
+                    row.user.setId(null);
+                }
+                case "like" -> {
+                    row.first = requiredId(node, "filmId");
+                    row.second = requiredId(node, "userId");
+                }
+                case "friend" -> {
+                    row.first = requiredId(node, "userId");
+                    row.second = requiredId(node, "friendId");
+                }
+                default -> throw new IllegalArgumentException("неизвестный тип записи: " + type);
+            }
+            return row;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("некорректный JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Row parseCsv(String line) {
+        List<String> columns = splitCsv(line);
+        String type = columns.get(0).trim();
+        Row row = new Row(type);
+        switch (type) {
+            case "type" -> row.type = "header";
+            case "film" -> {
+                requireColumns(columns, 6);
+                row.id = parseId(columns.get(1));
+                Film film = new Film();
+                film.setName(columns.get(2));
+                film.setDescription(columns.get(3));
+                film.setReleaseDate(LocalDate.parse(columns.get(4).trim()));
+                film.setDuration(Duration.ofMinutes(Long.parseLong(columns.get(5).trim())));
+                row.film = film;
+            }
+            case "user" -> {
+                requireColumns(columns, 6);
+                row.id = parseId(columns.get(1));
+                User user = new User();
+                user.setEmail(columns.get(2));
+                user.setLogin(columns.get(3));
+                user.setName(columns.get(4).isEmpty() ? null : columns.get(4));
+                user.setBirthday(columns.get(5).isBlank() ? null : LocalDate.parse(columns.get(5).trim()));
+                row.user = user;
+            }
+            case "like", "friend" -> {
+                requireColumns(columns, 3);
+                row.first = requiredId(columns.get(1), type.equals("like") ? "filmId" : "userId");
+                row.second = requiredId(columns.get(2), type.equals("like") ? "userId" : "friendId");
+            }
+            default -> throw new IllegalArgumentException("неизвестный тип записи: " + type);
+        }
+        return row;
+    }
+
+    private void writeLoop(ImportJob job, BlockingQueue<ParsedChunk> parsed) {
+        Writer writer = new Writer(job);
+        int finishedParsers = 0;
+        try {
+            while (finishedParsers < parallelism) {
+                ParsedChunk chunk = parsed.take();
+                if (chunk == ParsedChunk.END) {
+                    finishedParsers++;
+                } else {
+                    try {
+                        writer.write(chunk);
+                    } catch (RuntimeException e) {
+                        log.error("Импорт {}: ошибка записи пачки", job.getId(), e);
+                        job.rejected(chunk.firstLine, "ошибка записи пачки: " + e.getMessage());
+                    }
+                }
+            }
+            writer.finish();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> void validate(T entity) {
+        Set<ConstraintViolation<T>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * id из файла должны быть положительными: 0 означает «id не указан», а писатель не может
+     * хранить его в LongLongHashMap.
+     */
+    private static long requiredId(JsonNode node, String field) {
+        if (!node.path(field).canConvertToLong()) {
+            throw new IllegalArgumentException("не указано поле " + field);
+        }
+        return positiveId(node.path(field).asLong(), field);
+    }
+
+    private static long requiredId(String value, String field) {
+        if (value.isBlank()) {
+            throw new IllegalArgumentException("не указано поле " + field);
+        }
+        return positiveId(Long.parseLong(value.trim()), field);
+    }
+
+    private static long optionalId(JsonNode node) {
+        return node.path("id").isMissingNode() || node.path("id").isNull() ? 0 : requiredId(node, "id");
+    }
+
+    private static long parseId(String value) {
+        return value.isBlank() ? 0 : requiredId(value, "id");
+    }
+
+    private static long positiveId(long id, String field) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("поле " + field + " должно быть положительным: " + id);
+        }
+        return id;
+    }
+
+    private static void requireColumns(List<String> columns, int count) {
+        if (columns.size() < count) {
+            throw new IllegalArgumentException("ожидалось колонок: " + count + ", получено: " + columns.size());
+        }
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить временный файл импорта {}", file, e);
+        }
+    }
+
+    private class Writer {
+        private final ImportJob job;
+        private final LongLongHashMap filmIds = new LongLongHashMap();
+        private final LongLongHashMap userIds = new LongLongHashMap();
+        private final List<long[]> deferredLikes = new ArrayList<>();
+        private final List<long[]> deferredFriends = new ArrayList<>();
+
+        Writer(ImportJob job) {
+            this.job = job;
+        }
+
+        void write(ParsedChunk chunk) {
+            if (!chunk.films.isEmpty()) {
+                writeFilms(chunk);
+            }
+            if (!chunk.users.isEmpty()) {
+                writeUsers(chunk);
+            }
+            List<long[]> likes = new ArrayList<>(chunk.likes.size());
+            for (long[] like : chunk.likes) {
+                if (!filmIds.containsKey(like[0]) || !userIds.containsKey(like[1])) {
+                    defer(deferredLikes, like, "лайк");
+                } else {
+                    likes.add(like);
+                }
+            }
+            applyLikes(likes);
+            List<long[]> friends = new ArrayList<>(chunk.friends.size());
+            for (long[] friend : chunk.friends) {
+                if (!userIds.containsKey(friend[0]) || !userIds.containsKey(friend[1])) {
+                    defer(deferredFriends, friend, "дружба");
+                } else {
+                    friends.add(friend);
+                }
+            }
+            applyFriends(friends);
+        }
+
+        void finish() {
+            List<long[]> likes = new ArrayList<>(CHUNK_LINES);
+            for (long[] like : deferredLikes) {
+                if (!filmIds.containsKey(like[0])) {
+                    job.rejected(like[2], "лайк " + like[0] + "->" + like[1]
+                            + ": фильм " + like[0] + " не найден в файле");
+                } else if (!userIds.containsKey(like[1])) {
+                    job.rejected(like[2], "лайк " + like[0] + "->" + like[1]
+                            + ": пользователь " + like[1] + " не найден в файле");
+                } else {
+                    likes.add(like);
+                    if (likes.size() == CHUNK_LINES) {
+                        applyLikes(likes);
+                        likes.clear();
+                    }
+                }
+            }
+            applyLikes(likes);
+            List<long[]> friends = new ArrayList<>(CHUNK_LINES);
+            for (long[] friend : deferredFriends) {
+                long missing = !userIds.containsKey(friend[0]) ? friend[0] : friend[1];
+                if (!userIds.containsKey(missing)) {
+                    job.rejected(friend[2], "дружба " + friend[0] + "->" + friend[1]
+                            + ": пользователь " + missing + " не найден в файле");
+                } else {
+                    friends.add(friend);
+                    if (friends.size() == CHUNK_LINES) {
+                        applyFriends(friends);
+                        friends.clear();
+                    }
+                }
+            }
+            applyFriends(friends);
+            deferredLikes.clear();
+            deferredFriends.clear();
+        }
+
+        private void defer(List<long[]> deferred, long[] edge, String kind) {
+            if (deferredLikes.size() + deferredFriends.size() >= maxDeferredEdges) {
+                job.rejected(edge[2], kind + " " + edge[0] + "->" + edge[1]
+                        + ": слишком много связей на сущности, которых ещё не было в файле");
+            } else {
+                deferred.add(edge);
+            }
+        }
+
+        private void writeFilms(ParsedChunk chunk) {
+            try {
+                List<Film> added = filmService.addAll(chunk.films);
+                remember(filmIds, chunk.filmIds, added.stream().map(Film::getId).collect(Collectors.toList()));
+                job.imported(added.size());
+            } catch (RuntimeException batchError) {
+                for (int i = 0; i < chunk.films.size(); i++) {
+                    try {
+                        Film film = filmService.add(chunk.films.get(i));
+                        if (chunk.filmIds.get(i) > 0) {
+                            filmIds.put(chunk.filmIds.get(i), film.getId());
+                        }
+                        job.imported(1);
+                    } catch (RuntimeException e) {
+                        job.rejected(chunk.filmLines.get(i), "фильм " + chunk.filmIds.get(i) + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        private void writeUsers(ParsedChunk chunk) {
+            try {
+                List<User> created = userStorage.createAll(chunk.users);
+                remember(userIds, chunk.userIds, created.stream().map(User::getId).collect(Collectors.toList()));
+                job.imported(created.size());
+            } catch (RuntimeException batchError) {
+                for (int i = 0; i < chunk.users.size(); i++) {
+                    try {
+                        User user = userStorage.create(chunk.users.get(i));
+                        if (chunk.userIds.get(i) > 0) {
+                            userIds.put(chunk.userIds.get(i), user.getId());
+                        }
+                        job.imported(1);
+                    } catch (RuntimeException e) {
+                        job.rejected(chunk.userLines.get(i),
+                                "пользователь " + chunk.userIds.get(i) + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Лайки пачки пишутся одним вызовом с id хранилища; отвергнутые отмечаются по своим строкам.
+         */
+        private void applyLikes(List<long[]> edges) {
+            if (edges.isEmpty()) {
+                return;
+            }
+            List<long[]> likes = new ArrayList<>(edges.size());
+            for (long[] edge : edges) {
+                likes.add(new long[]{filmIds.get(edge[0], 0), userIds.get(edge[1], 0)});
+            }
+            try {
+                record(edges, filmService.addLikes(likes), "лайк", "уже поставлен или фильм удалён");
+            } catch (RuntimeException e) {
+                record(edges, new boolean[edges.size()], "лайк", e.getMessage());
+            }
+        }
+
+        private void applyFriends(List<long[]> edges) {
+            if (edges.isEmpty()) {
+                return;
+            }
+            List<long[]> friendships = new ArrayList<>(edges.size());
+            for (long[] edge : edges) {
+                friendships.add(new long[]{userIds.get(edge[0], 0), userIds.get(edge[1], 0)});
+            }
+            try {
+                record(edges, userService.addFriendships(friendships), "дружба",
+                        "нельзя добавить себя в друзья или пользователь удалён");
+            } catch (RuntimeException e) {
+                record(edges, new boolean[edges.size()], "дружба", e.getMessage());
+            }
+        }
+
+        private void record(List<long[]> edges, boolean[] added, String kind, String reason) {
+            int imported = 0;
+            for (int i = 0; i < added.length; i++) {
+                if (added[i]) {
+                    imported++;
+                } else {
+                    long[] edge = edges.get(i);
+                    job.rejected(edge[2], kind + " " + edge[0] + "->" + edge[1] + ": " + reason);
+                }
+            }
+            job.imported(imported);
+        }
+
+        private void remember(LongLongHashMap mapping, List<Long> externalIds, List<Long> ids) {
+            for (int i = 0; i < ids.size(); i++) {
+                if (externalIds.get(i) > 0) {
+                    mapping.put(externalIds.get(i), ids.get(i));
+                }
+            }
+        }
+    }
+
+    private static final class LineChunk {
+        private static final LineChunk END = new LineChunk(0, List.of());
+
+        private final long firstLine;
+        private final List<String> lines;
+
+        private LineChunk(long firstLine, List<String> lines) {
+            this.firstLine = firstLine;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Лайки и дружбы хранятся как {id из файла, id из файла, номер строки}.
+     */
+    private static final class ParsedChunk {
+        private static final ParsedChunk END = new ParsedChunk(0);
+
+        private final long firstLine;
+        private final List<Film> films = new ArrayList<>();
+        private final List<Long> filmIds = new ArrayList<>();
+        private final List<Long> filmLines = new ArrayList<>();
+        private final List<User> users = new ArrayList<>();
+        private final List<Long> userIds = new ArrayList<>();
+        private final List<Long> userLines = new ArrayList<>();
+        private final List<long[]> likes = new ArrayList<>();
+        private final List<long[]> friends = new ArrayList<>();
+
+        private ParsedChunk(long firstLine) {
+            this.firstLine = firstLine;
+        }
+    }
+
+    private static final class Row {
+        private String type;
+        private long id;
+        private Film film;
+        private User user;
+        private long first;
+        private long second;
+
+        private Row(String type) {
+            this.type = type;
+        }
+    }
+}
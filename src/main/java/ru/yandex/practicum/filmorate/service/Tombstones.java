@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Id удалённых фильмов и пользователей. Сущность удаляется из хранилища сразу, а ссылки на неё
+ * в чужих множествах, ленте и рейтинге вычищаются в фоне, поэтому читатели сверяются с этим списком.
+ * Запись снимается, когда фоновая очистка закончила со всеми ссылками, включая события ленты.
+ * <p>
+ * Добавление связи проверяет обе сущности, пишет и сверяется с этим списком уже после записи.
+ * Чтобы запись не пропала между проверкой и сверкой, добавление идёт в секции
+ * {@link #beginWrite()}/{@link #endWrite(int)}, а перед снятием записей очистка ждёт
+ * в {@link #awaitWriters()} все секции, открытые раньше. Секции считаются в двух эпохах,
+ * счётчики эпохи разнесены по потокам, чтобы лайки одного фильма не упирались в один счётчик.
+ */
+@Component
+public class Tombstones {
+    private static final int STRIPES = 64;
+    private static final int STRIDE = 16;
+
+    private final Set<Long> films = ConcurrentHashMap.newKeySet();
+    private final Set<Long> users = ConcurrentHashMap.newKeySet();
+    private final AtomicIntegerArray writers = new AtomicIntegerArray(2 * STRIPES * STRIDE);
+    private volatile int epoch;
+
+    public void markFilmDeleted(long filmId) {
+        films.add(filmId);
+    }
+
+    public void markUserDeleted(long userId) {
+        users.add(userId);
+    }
+
+    public void pruneFilms(Collection<Long> filmIds) {
+        films.removeAll(filmIds);
+    }
+
+    public void pruneUsers(Collection<Long> userIds) {
+        users.removeAll(userIds);
+    }
+
+    public boolean isFilmDeleted(long filmId) {
+        return !films.isEmpty() && films.contains(filmId);
+    }
+
+    public boolean isUserDeleted(long userId) {
+        return !users.isEmpty() && users.contains(userId);
+    }
+
+    /**
+     * Открывает секцию записи связи; проверка существования сущностей должна идти уже внутри неё.
+     * Возвращает метку для {@link #endWrite(int)}.
+     */
+    public int beginWrite() {
+        int stripe = (Thread.currentThread().hashCode() & (STRIPES - 1)) * STRIDE;
+        while (true) {
+            int current = epoch;
+            int slot = current * STRIPES * STRIDE + stripe;
+            writers.incrementAndGet(slot);
+            if (epoch == current) {
+                return slot;
+            }
+            // эпоха сменилась между чтением и счётом: очистка могла уже не увидеть эту секцию
+            writers.decrementAndGet(slot);
+        }
+    }
+
+    public void endWrite(int slot) {
+        writers.decrementAndGet(slot);
+    }
+
+    /**
+     * Переключает эпоху и ждёт, пока закроются все секции прежней. Секции, открытые после переключения,
+     * проверяют существование уже после удаления сущности из хранилища и ссылок на неё не оставят.
+     */
+    public synchronized void awaitWriters() {
+        int previous = epoch;
+        epoch = 1 - previous;
+        int from = previous * STRIPES * STRIDE;
+        for (int slot = from; slot < from + STRIPES * STRIDE; slot += STRIDE) {
+            while (writers.get(slot) != 0) {
+                Thread.yield();
+            }
+        }
+    }
+}
@@ -5,8 +5,14 @@ import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -14,54 +20,132 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserService {
     private final UserStorage userStorage;
+    private final FeedService feedService;
+    private final DeletionService deletionService;
+    private final Tombstones tombstones;
 
-    public UserService(UserStorage userStorage) {
+    public UserService(UserStorage userStorage, FeedService feedService, DeletionService deletionService,
+                       Tombstones tombstones) {
         this.userStorage = userStorage;
+        this.feedService = feedService;
+        this.deletionService = deletionService;
+        this.tombstones = tombstones;
+    }
+
+    public User patchUser(Long userId, UserPatch patch) {
+        return userStorage.patch(userId, patch);
+    }
+
+    public void delete(Long userId) {
+        deletionService.deleteUser(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден"));
+        log.info("Пользователь ID {} удалён, связи вычищаются в фоне", userId);
+    }
+
+    public User findByEmail(String email) {
+        return userStorage.findByEmail(email)
+                .orElseThrow(() -> new NotFoundException("Пользователь с email " + email + " не найден"));
+    }
+
+    public User findByLogin(String login) {
+        return userStorage.findByLogin(login)
+                .orElseThrow(() -> new NotFoundException("Пользователь с логином " + login + " не найден"));
     }
 
     public Set<User> findAllFriends(Long userId) {
         User user = getUserById(userId);
         log.info("Найдено друзей у пользователя ID {}: {}", userId, user.getFriendsId().size());
-        return user.getFriendsId().stream()
-                .map(this::getUserById)
-                .collect(Collectors.toSet());
+        return new HashSet<>(userStorage.findAllById(user.getFriendsId()));
+    }
+
+    public List<User> findAllById(Collection<Long> ids) {
+        List<User> users = userStorage.findAllById(new LinkedHashSet<>(ids));
+        log.info("Запрошено пользователей: {}, найдено: {}", ids.size(), users.size());
+        return users;
     }
 
     public void addFriends(Long userId, Long friendId) {
-        User user = getUserById(userId);
-        User friend = getUserById(friendId);
+        int write = tombstones.beginWrite();
+        try {
+            getUserById(userId);
+            getUserById(friendId);
+
+            if (userId.equals(friendId)) {
+                throw new ValidationException("Нельзя добавить себя в друзья");
+            }
+            log.info("Пользователь ID {} добавил в друзья пользователя ID {}", userId, friendId);
+            userStorage.addFriend(userId, friendId);
+            // пользователь мог быть удалён после проверки выше: фоновая очистка могла уже снять
+            // снимок его друзей, поэтому дружба откатывается здесь; пока секция записи открыта,
+            // запись в Tombstones не снимется
+            if (tombstones.isUserDeleted(userId) || tombstones.isUserDeleted(friendId)) {
+                userStorage.removeFriend(userId, friendId);
+                throw new NotFoundException("Пользователь " + userId + " или " + friendId + " удалён");
+            }
+            feedService.onFriend(userId, friendId);
+        } finally {
+            tombstones.endWrite(write);
+        }
+    }
 
-        if (userId.equals(friendId)) {
-            throw new ValidationException("Нельзя добавить себя в друзья");
+    /**
+     * Пакетное добавление дружб {userId, friendId} для импорта: дружбы с удалёнными к этому моменту
+     * пользователями не добавляются, события в ленту не публикуются. Для каждой дружбы возвращает, добавлена ли она.
+     */
+    public boolean[] addFriendships(List<long[]> friendships) {
+        int write = tombstones.beginWrite();
+        try {
+            // пользователь мог быть удалён уже после проверки импортом, поэтому наличие обоих
+            // проверяется здесь, внутри секции записи
+            Set<Long> userIds = new HashSet<>();
+            friendships.forEach(friendship -> {
+                userIds.add(friendship[0]);
+                userIds.add(friendship[1]);
+            });
+            Set<Long> existing = userStorage.findAllById(userIds).stream()
+                    .map(User::getId)
+                    .collect(Collectors.toSet());
+            boolean[] added = new boolean[friendships.size()];
+            List<long[]> valid = new ArrayList<>(friendships.size());
+            for (int i = 0; i < friendships.size(); i++) {
+                long[] friendship = friendships.get(i);
+                if (friendship[0] != friendship[1] && existing.contains(friendship[0])
+                        && existing.contains(friendship[1])) {
+                    valid.add(friendship);
+                    added[i] = true;
+                }
+            }
+            userStorage.addFriends(valid);
+            for (int i = 0; i < friendships.size(); i++) {
+                long[] friendship = friendships.get(i);
+                if (added[i] && (tombstones.isUserDeleted(friendship[0]) || tombstones.isUserDeleted(friendship[1]))) {
+                    userStorage.removeFriend(friendship[0], friendship[1]);
+                    added[i] = false;
+                }
+            }
+            log.info("Пакетно добавлено дружб: {}", valid.size());
+            return added;
+        } finally {
+            tombstones.endWrite(write);
         }
-        log.info("Пользователь ID {} добавил в друзья пользователя ID {}", userId, friendId);
-        user.getFriendsId().add(friendId);
-        friend.getFriendsId().add(userId);
     }
 
     public void removeFriend(Long userId, Long friendId) {
-        User user = getUserById(userId);
-        User friend = getUserById(friendId);
+        getUserById(userId);
+        getUserById(friendId);
 
         log.info("Пользователь ID {} удалил из друзей пользователя ID {}", userId, friendId);
-        user.getFriendsId().remove(friendId);
-        friend.getFriendsId().remove(userId);
+        userStorage.removeFriend(userId, friendId);
     }
 
     public Set<User> getCommonFriends(Long userId1, Long userId2) {
-        User user1 = getUserById(userId1);
-        User user2 = getUserById(userId2);
-
-        Set<Long> friends1 = user1.getFriendsId();
-        Set<Long> friends2 = user2.getFriendsId();
+        getUserById(userId1);
+        getUserById(userId2);
 
         log.info("Найдены общие друзя между пользователями ID {} и ID {}",
                 userId1, userId2);
 
-        return friends1.stream()
-                .filter(friends2::contains)
-                .map(this::getUserById)
-                .collect(Collectors.toSet());
+        return new HashSet<>(userStorage.findCommonFriends(userId1, userId2));
     }
 
     private User getUserById(Long userId) {
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.settings;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.yandex.practicum.filmorate.service.Tombstones;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Пишет множество id без удалённых сущностей, пока фоновая очистка ещё не дошла до этого множества.
+ * Сериализатор создаёт Spring, поэтому {@link Tombstones} внедряется; в ObjectMapper без контекста
+ * используется конструктор по умолчанию и id пишутся как есть.
+ */
+public abstract class LiveIdsSerializer extends JsonSerializer<Set<Long>> {
+    protected final Tombstones tombstones;
+
+    protected LiveIdsSerializer(Tombstones tombstones) {
+        this.tombstones = tombstones;
+    }
+
+    @Override
+    public void serialize(Set<Long> ids, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeStartArray();
+        for (Long id : ids) {
+            if (tombstones == null || !isDeleted(id)) {
+                gen.writeNumber(id);
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    protected abstract boolean isDeleted(long id);
+
+    public static class Users extends LiveIdsSerializer {
+        public Users() {
+            super(null);
+        }
+
+        @Autowired
+        public Users(Tombstones tombstones) {
+            super(tombstones);
+        }
+
+        @Override
+        protected boolean isDeleted(long id) {
+            return tombstones.isUserDeleted(id);
+        }
+    }
+
+    public static class Films extends LiveIdsSerializer {
+        public Films() {
+            super(null);
+        }
+
+        @Autowired
+        public Films(Tombstones tombstones) {
+            super(tombstones);
+        }
+
+        @Override
+        protected boolean isDeleted(long id) {
+            return tombstones.isFilmDeleted(id);
+        }
+    }
+}
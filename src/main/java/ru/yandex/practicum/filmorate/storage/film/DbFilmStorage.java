@@ -0,0 +1,337 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Хранилище фильмов во встроенной БД. Лайки лежат в таблице likes, а счётчик likes_count
+ * в films обновляется в той же транзакции, поэтому топ популярных читается по индексу (likes_count, id).
+ */
+@Component
+@Profile("db")
+@Slf4j
+public class DbFilmStorage implements FilmStorage {
+    private static final String FILM_COLUMNS = "f.id, f.name, f.description, f.release_date, "
+            + "f.duration_seconds, f.duration_nanos, l.user_id";
+    private static final String INSERT_FILM = "INSERT INTO films (name, description, release_date, "
+            + "duration_seconds, duration_nanos) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+
+    public DbFilmStorage(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return jdbc.query("SELECT " + FILM_COLUMNS + " FROM films f "
+                + "LEFT JOIN likes l ON l.film_id = f.id ORDER BY f.id", DbFilmStorage::extractFilms);
+    }
+
+    @Override
+    public Film add(Film film) {
+        FilmFields.validateFilm(film);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_FILM, new String[]{"id"});
+            bindFilm(statement, film);
+            return statement;
+        }, keyHolder);
+        film.setId(keyHolder.getKeyAs(Long.class));
+        film.setLikes(ConcurrentHashMap.newKeySet());
+
+        log.info("Фильм '{}' (ID: {}) успешно добавлен", film.getName(), film.getId());
+        log.debug("Полная информация о добавленном фильме: {}", film);
+
+        return film;
+    }
+
+    @Override
+    @Transactional
+    public List<Film> addAll(List<Film> newFilms) {
+        newFilms.forEach(FilmFields::validateFilm);
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            insertBatch(connection, newFilms);
+            return null;
+        });
+        log.info("Пакетно добавлено фильмов: {}", newFilms.size());
+        return newFilms;
+    }
+
+    @Override
+    @Transactional
+    public Film update(Film newFilm) {
+        if (newFilm.getId() == null) {
+            log.error("Ошибка: ID фильма должен быть указан");
+            throw new ValidationException("ID фильма должен быть указан");
+        }
+        return patch(newFilm.getId(), FilmPatch.of(newFilm));
+    }
+
+    /**
+     * UPDATE затрагивает только изменившиеся колонки. Строка фильма блокируется (SELECT ... FOR UPDATE)
+     * до чтения, чтобы параллельный patch не перезаписал изменения, прочитанные до него.
+     */
+    @Override
+    @Transactional
+    public Film patch(Long id, FilmPatch patch) {
+        List<Long> locked = jdbc.queryForList("SELECT id FROM films WHERE id = ? FOR UPDATE", Long.class, id);
+        Film oldFilm = locked.isEmpty() ? null : findById(id).orElse(null);
+        if (oldFilm == null) {
+            log.warn("Фильм с id {} не найден", id);
+            throw new NotFoundException("Фильм с id " + id + " не найден");
+        }
+        log.debug("Текущие данные фильма (ID: {}): {}", oldFilm.getId(), oldFilm);
+
+        Set<FilmPatch.Field> changed = FilmFields.applyPatch(oldFilm, patch);
+        if (changed.isEmpty()) {
+            return oldFilm;
+        }
+        List<String> columns = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        if (changed.contains(FilmPatch.Field.NAME)) {
+            columns.add("name = ?");
+            values.add(oldFilm.getName());
+        }
+        if (changed.contains(FilmPatch.Field.DESCRIPTION)) {
+            columns.add("description = ?");
+            values.add(oldFilm.getDescription());
+        }
+        if (changed.contains(FilmPatch.Field.RELEASE_DATE)) {
+            columns.add("release_date = ?");
+            values.add(Date.valueOf(oldFilm.getReleaseDate()));
+        }
+        if (changed.contains(FilmPatch.Field.DURATION)) {
+            columns.add("duration_seconds = ?");
+            columns.add("duration_nanos = ?");
+            values.add(oldFilm.getDuration().getSeconds());
+            values.add(oldFilm.getDuration().getNano());
+        }
+        values.add(id);
+        jdbc.update("UPDATE films SET " + String.join(", ", columns) + " WHERE id = ?", values.toArray());
+        return oldFilm;
+    }
+
+    @Override
+    public Optional<Film> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        List<Film> films = jdbc.query("SELECT " + FILM_COLUMNS + " FROM films f "
+                + "LEFT JOIN likes l ON l.film_id = f.id WHERE f.id = ?", DbFilmStorage::extractFilms, id);
+        return films.stream().findFirst();
+    }
+
+    /**
+     * Один запрос с id = ANY(?) вместо запроса на каждый id; порядок ответа — порядок запроса.
+     */
+    @Override
+    public List<Film> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Film> films = jdbc.query("SELECT " + FILM_COLUMNS + " FROM films f "
+                        + "LEFT JOIN likes l ON l.film_id = f.id WHERE f.id = ANY(?)",
+                DbFilmStorage::extractFilms, (Object) ids.toArray(new Long[0]));
+        Map<Long, Film> byId = new HashMap<>();
+        films.forEach(film -> byId.put(film.getId(), film));
+        List<Film> result = new ArrayList<>(films.size());
+        for (Long id : ids) {
+            Film film = byId.get(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Лайки фильма удаляются каскадом (ON DELETE CASCADE) в той же транзакции.
+     */
+    @Override
+    @Transactional
+    public Optional<Film> delete(Long id) {
+        Optional<Film> removed = findById(id);
+        removed.ifPresent(film -> {
+            jdbc.update("DELETE FROM films WHERE id = ?", film.getId());
+            log.info("Фильм '{}' (ID: {}) удалён", film.getName(), film.getId());
+        });
+        return removed;
+    }
+
+    /**
+     * NOT EXISTS отсекает повтор без исключения, а параллельную вставку того же лайка
+     * ловит первичный ключ likes: DuplicateKeyException означает, что лайк уже поставлен.
+     */
+    @Override
+    @Transactional
+    public boolean addLike(Long filmId, Long userId) {
+        int inserted;
+        try {
+            inserted = jdbc.update("INSERT INTO likes (film_id, user_id) SELECT ?, ? "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)",
+                    filmId, userId, filmId, userId);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        if (inserted == 0) {
+            return false;
+        }
+        jdbc.update("UPDATE films SET likes_count = likes_count + 1 WHERE id = ?", filmId);
+        return true;
+    }
+
+    /**
+     * Лайки вставляются одним JDBC-пакетом: строка пропускается, если лайк уже есть или фильма
+     * либо пользователя нет, так что ошибка внешнего ключа не обрывает пакет. Затем likes_count
+     * сдвигается вторым пакетом, по одному UPDATE на фильм. Параллельная вставка того же лайка
+     * (DuplicateKeyException) откатывает весь пакет.
+     */
+    @Override
+    @Transactional
+    public boolean[] addLikes(List<long[]> likes) {
+        if (likes.isEmpty()) {
+            return new boolean[0];
+        }
+        List<Object[]> rows = new ArrayList<>(likes.size());
+        for (long[] like : likes) {
+            rows.add(new Object[]{like[0], like[1], like[0], like[1], like[0], like[1]});
+        }
+        int[] inserted = jdbc.batchUpdate("INSERT INTO likes (film_id, user_id) SELECT ?, ? "
+                + "WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?) "
+                + "AND EXISTS (SELECT 1 FROM films WHERE id = ?) AND EXISTS (SELECT 1 FROM users WHERE id = ?)", rows);
+
+        boolean[] added = new boolean[likes.size()];
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        int addedCount = 0;
+        for (int i = 0; i < inserted.length; i++) {
+            added[i] = inserted[i] > 0;
+            if (added[i]) {
+                deltas.merge(likes.get(i)[0], 1, Integer::sum);
+                addedCount++;
+            }
+        }
+        List<Object[]> counters = new ArrayList<>(deltas.size());
+        deltas.forEach((filmId, delta) -> counters.add(new Object[]{delta, filmId}));
+        jdbc.batchUpdate("UPDATE films SET likes_count = likes_count + ? WHERE id = ?", counters);
+        log.info("Пакетно добавлено лайков: {} из {}", addedCount, likes.size());
+        return added;
+    }
+
+    @Override
+    @Transactional
+    public boolean removeLike(Long filmId, Long userId) {
+        int deleted = jdbc.update("DELETE FROM likes WHERE film_id = ? AND user_id = ?", filmId, userId);
+        if (deleted == 0) {
+            return false;
+        }
+        jdbc.update("UPDATE films SET likes_count = likes_count - 1 WHERE id = ?", filmId);
+        return true;
+    }
+
+    /**
+     * Строки likes уже удалены каскадом вместе с пользователем, а likes_count уменьшен в той же транзакции
+     * по тем же фильмам, поэтому снятыми считаются все перечисленные лайки.
+     */
+    @Override
+    public List<Long> purgeLikesOf(Long userId, Collection<Long> filmIds) {
+        return List.copyOf(filmIds);
+    }
+
+    @Override
+    public List<Film> findPopular(int count) {
+        return jdbc.query("SELECT " + FILM_COLUMNS + " FROM (SELECT * FROM films "
+                        + "ORDER BY likes_count DESC, id LIMIT ?) f "
+                        + "LEFT JOIN likes l ON l.film_id = f.id ORDER BY f.likes_count DESC, f.id",
+                DbFilmStorage::extractFilms, count);
+    }
+
+    private static void insertBatch(Connection connection, List<Film> films) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_FILM, new String[]{"id"})) {
+            for (Film film : films) {
+                bindFilm(statement, film);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (Film film : films) {
+                    keys.next();
+                    film.setId(keys.getLong(1));
+                    film.setLikes(ConcurrentHashMap.newKeySet());
+                }
+            }
+        }
+    }
+
+    private static void bindFilm(PreparedStatement statement, Film film) throws SQLException {
+        statement.setString(1, film.getName());
+        statement.setString(2, film.getDescription());
+        statement.setDate(3, film.getReleaseDate() == null ? null : Date.valueOf(film.getReleaseDate()));
+        if (film.getDuration() == null) {
+            statement.setNull(4, Types.BIGINT);
+            statement.setNull(5, Types.INTEGER);
+        } else {
+            statement.setLong(4, film.getDuration().getSeconds());
+            statement.setInt(5, film.getDuration().getNano());
+        }
+    }
+
+    private static List<Film> extractFilms(ResultSet resultSet) throws SQLException {
+        Map<Long, Film> films = new LinkedHashMap<>();
+        while (resultSet.next()) {
+            long id = resultSet.getLong("id");
+            Film film = films.get(id);
+            if (film == null) {
+                film = mapFilm(resultSet, id);
+                films.put(id, film);
+            }
+            long userId = resultSet.getLong("user_id");
+            if (!resultSet.wasNull()) {
+                film.getLikes().add(userId);
+            }
+        }
+        return new ArrayList<>(films.values());
+    }
+
+    private static Film mapFilm(ResultSet resultSet, long id) throws SQLException {
+        Film film = new Film();
+        film.setId(id);
+        film.setName(resultSet.getString("name"));
+        film.setDescription(resultSet.getString("description"));
+        Date releaseDate = resultSet.getDate("release_date");
+        film.setReleaseDate(releaseDate == null ? null : releaseDate.toLocalDate());
+        long seconds = resultSet.getLong("duration_seconds");
+        if (!resultSet.wasNull()) {
+            film.setDuration(Duration.ofSeconds(seconds, resultSet.getInt("duration_nanos")));
+        }
+        return film;
+    }
+}
@@ -0,0 +1,128 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+public final class FilmFields {
+    private static final LocalDate VALIDATE_DATA = LocalDate.of(1895, 12, 28);
+
+    private FilmFields() {
+    }
+
+    public static void validateFilm(Film film) {
+        validateDateRelease(film.getReleaseDate());
+        validateDuration(film.getDuration());
+    }
+
+    static void prepareRelations(Film film) {
+        Set<Long> likes = ConcurrentHashMap.newKeySet();
+        if (film.getLikes() != null) {
+            likes.addAll(film.getLikes());
+        }
+        film.setLikes(likes);
+    }
+
+    /**
+     * Копия фильма с лайками только для чтения: изменения копии не попадают в хранилище.
+     */
+    static Film readOnlyCopy(Film film) {
+        Film copy = new Film();
+        copy.setId(film.getId());
+        copy.setName(film.getName());
+        copy.setDescription(film.getDescription());
+        copy.setReleaseDate(film.getReleaseDate());
+        copy.setDuration(film.getDuration());
+        copy.setLikes(Collections.unmodifiableSet(film.getLikes()));
+        return copy;
+    }
+
+    /**
+     * Применяет только присутствующие в изменении поля и возвращает те, что действительно изменились.
+     * Все поля проверяются до применения первого, поэтому отклонённое изменение не оставляет фильм
+     * изменённым наполовину.
+     */
+    static Set<FilmPatch.Field> applyPatch(Film oldFilm, FilmPatch patch) {
+        validatePatch(oldFilm, patch);
+        Set<FilmPatch.Field> changed = EnumSet.noneOf(FilmPatch.Field.class);
+
+        if (patch.has(FilmPatch.Field.NAME) && !patch.getName().equals(oldFilm.getName())) {
+            log.info("Изменение названия фильма с ID {}: '{}' -> '{}'",
+                    oldFilm.getId(), oldFilm.getName(), patch.getName());
+            oldFilm.setName(patch.getName());
+            changed.add(FilmPatch.Field.NAME);
+        }
+
+        if (patch.has(FilmPatch.Field.DESCRIPTION) && !patch.getDescription().equals(oldFilm.getDescription())) {
+            log.info("Изменение описания фильма с ID {}: '{}' -> '{}'",
+                    oldFilm.getId(), oldFilm.getDescription(), patch.getDescription());
+            oldFilm.setDescription(patch.getDescription());
+            changed.add(FilmPatch.Field.DESCRIPTION);
+        }
+
+        if (patch.has(FilmPatch.Field.RELEASE_DATE) && !patch.getReleaseDate().equals(oldFilm.getReleaseDate())) {
+            log.info("Изменение даты выхода фильма с ID {}: {} -> {}",
+                    oldFilm.getId(), oldFilm.getReleaseDate(), patch.getReleaseDate());
+            oldFilm.setReleaseDate(patch.getReleaseDate());
+            changed.add(FilmPatch.Field.RELEASE_DATE);
+        }
+
+        if (patch.has(FilmPatch.Field.DURATION) && !patch.getDuration().equals(oldFilm.getDuration())) {
+            log.info("Изменение продолжительности фильма с ID {}: {} -> {}",
+                    oldFilm.getId(), oldFilm.getDuration(), patch.getDuration());
+            oldFilm.setDuration(patch.getDuration());
+            changed.add(FilmPatch.Field.DURATION);
+        }
+
+        if (!changed.isEmpty()) {
+            log.info("Фильм с ID {} успешно обновлен, изменены поля: {}", oldFilm.getId(), changed);
+            log.debug("Обновленные данные фильма (ID: {}): {}", oldFilm.getId(), oldFilm);
+        } else {
+            log.info("Данные фильма с ID {} не изменились", oldFilm.getId());
+        }
+
+        return changed;
+    }
+
+    private static void validatePatch(Film oldFilm, FilmPatch patch) {
+        requirePresent(patch, FilmPatch.Field.NAME, patch.getName(), "Название фильма не может быть пустым");
+        requirePresent(patch, FilmPatch.Field.DESCRIPTION, patch.getDescription(),
+                "Описание фильма не может быть пустым");
+        requirePresent(patch, FilmPatch.Field.RELEASE_DATE, patch.getReleaseDate(), "Дата релиза обязательна");
+        requirePresent(patch, FilmPatch.Field.DURATION, patch.getDuration(), "Продолжительность обязательна");
+        if (patch.has(FilmPatch.Field.RELEASE_DATE) && !patch.getReleaseDate().equals(oldFilm.getReleaseDate())) {
+            validateDateRelease(patch.getReleaseDate());
+        }
+        if (patch.has(FilmPatch.Field.DURATION) && !patch.getDuration().equals(oldFilm.getDuration())) {
+            validateDuration(patch.getDuration());
+        }
+    }
+
+    private static void requirePresent(FilmPatch patch, FilmPatch.Field field, Object value, String message) {
+        if (patch.has(field) && value == null) {
+            throw new ValidationException(message);
+        }
+    }
+
+    static void validateDateRelease(LocalDate dataRelease) {
+        if (dataRelease.isBefore(VALIDATE_DATA)) {
+            throw new ValidationException("Дата релиза должна быть позже " + VALIDATE_DATA.format(DateTimeFormatter.ISO_DATE));
+        }
+    }
+
+    static void validateDuration(Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new ValidationException("Продолжительность фильма должно быть положительным числом");
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
 
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public interface FilmStorage {
     public Collection<Film> findAll();
@@ -12,5 +16,73 @@ public interface FilmStorage {
 
     public Film update(Film newFilm);
 
+    /**
+     * Применяет к фильму только присутствующие в изменении поля, не перезаписывая остальные.
+     */
+    public Film patch(Long id, FilmPatch patch);
+
     public Optional<Film> findById(Long id);
+
+    /**
+     * Удаляет фильм и возвращает его вместе с лайками; ссылки на фильм у пользователей остаются
+     * и вычищаются отдельно через UserStorage.purgeLikedFilm.
+     */
+    public Optional<Film> delete(Long id);
+
+    /**
+     * Фильмы с перечисленными id в порядке запроса; отсутствующие id пропускаются.
+     */
+    public default List<Film> findAllById(Collection<Long> ids) {
+        return ids.stream()
+                .map(this::findById)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    public default List<Film> addAll(List<Film> films) {
+        return films.stream()
+                .map(this::add)
+                .collect(Collectors.toList());
+    }
+
+    public default boolean addLike(Long filmId, Long userId) {
+        return findById(filmId)
+                .map(film -> film.getLikes().add(userId))
+                .orElse(false);
+    }
+
+    /**
+     * Пакетное добавление лайков {filmId, userId} для импорта. Для каждого лайка возвращает,
+     * добавлен ли он: false — лайк уже был или фильма нет.
+     */
+    public default boolean[] addLikes(List<long[]> likes) {
+        boolean[] added = new boolean[likes.size()];
+        for (int i = 0; i < likes.size(); i++) {
+            added[i] = addLike(likes.get(i)[0], likes.get(i)[1]);
+        }
+        return added;
+    }
+
+    public default boolean removeLike(Long filmId, Long userId) {
+        return findById(filmId)
+                .map(film -> film.getLikes().remove(userId))
+                .orElse(false);
+    }
+
+    /**
+     * Снимает лайки удалённого пользователя с перечисленных фильмов и возвращает id фильмов,
+     * с которых лайк действительно снят.
+     */
+    public default List<Long> purgeLikesOf(Long userId, Collection<Long> filmIds) {
+        return filmIds.stream()
+                .filter(filmId -> removeLike(filmId, userId))
+                .collect(Collectors.toList());
+    }
+
+    public default List<Film> findPopular(int count) {
+        return findAll().stream()
+                .sorted(Comparator.comparingInt((Film film) -> film.getLikes().size()).reversed())
+                .limit(count)
+                .collect(Collectors.toList());
+    }
 }
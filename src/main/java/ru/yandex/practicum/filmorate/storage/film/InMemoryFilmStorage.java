@@ -1,24 +1,27 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
 
-import java.time.Duration;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
+@Profile("!off-heap & !tiered & !db")
 @Slf4j
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Long, Film> films = new HashMap<>();
-    private final LocalDate validateData = LocalDate.of(1895, 12, 28);
+    private final Map<Long, Film> films = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
 
     @Override
     public Collection<Film> findAll() {
@@ -27,7 +30,8 @@ public class InMemoryFilmStorage implements FilmStorage {
 
     @Override
     public Film add(Film film) {
-        validateFilm(film);
+        FilmFields.validateFilm(film);
+        FilmFields.prepareRelations(film);
         film.setId(getNextId());
         films.put(film.getId(), film);
 
@@ -37,6 +41,18 @@ public class InMemoryFilmStorage implements FilmStorage {
         return film;
     }
 
+    @Override
+    public List<Film> addAll(List<Film> newFilms) {
+        newFilms.forEach(FilmFields::validateFilm);
+        for (Film film : newFilms) {
+            FilmFields.prepareRelations(film);
+            film.setId(getNextId());
+            films.put(film.getId(), film);
+        }
+        log.info("Пакетно добавлено фильмов: {}", newFilms.size());
+        return newFilms;
+    }
+
     @Override
     public Film update(Film newFilm) {
         if (newFilm.getId() == null) {
@@ -44,51 +60,20 @@ public class InMemoryFilmStorage implements FilmStorage {
             throw new ValidationException("ID фильма должен быть указан");
         }
 
-        if (!films.containsKey(newFilm.getId())) {
-            log.warn("Фильм с id {} не найден", newFilm.getId());
-            throw new NotFoundException("Фильм с id " + newFilm.getId() + " не найден");
-        }
-
-        Film oldFilm = films.get(newFilm.getId());
-        log.debug("Текущие данные фильма (ID: {}): {}", oldFilm.getId(), oldFilm);
-
-        boolean changed = false;
-
-        if (newFilm.getName() != null && !newFilm.getName().equals(oldFilm.getName())) {
-            log.info("Изменение названия фильма с ID {}: '{}' -> '{}'",
-                    oldFilm.getId(), oldFilm.getName(), newFilm.getName());
-            oldFilm.setName(newFilm.getName());
-            changed = true;
-        }
-
-        if (newFilm.getDescription() != null && !newFilm.getDescription().equals(oldFilm.getDescription())) {
-            log.info("Изменение описания фильма с ID {}: '{}' -> '{}'",
-                    oldFilm.getId(), oldFilm.getDescription(), newFilm.getDescription());
-            oldFilm.setDescription(newFilm.getDescription());
-            changed = true;
-        }
-
-        if (newFilm.getReleaseDate() != null && !newFilm.getReleaseDate().equals(oldFilm.getReleaseDate())) {
-            validateDateRelease(newFilm.getReleaseDate());
-            log.info("Изменение даты выхода фильма с ID {}: {} -> {}",
-                    oldFilm.getId(), oldFilm.getReleaseDate(), newFilm.getReleaseDate());
-            oldFilm.setReleaseDate(newFilm.getReleaseDate());
-            changed = true;
-        }
+        return patch(newFilm.getId(), FilmPatch.of(newFilm));
+    }
 
-        if (newFilm.getDuration() != null && !newFilm.getDuration().equals(oldFilm.getDuration())) {
-            validateDuration(newFilm.getDuration());
-            log.info("Изменение продолжительности фильма с ID {}: {} -> {}",
-                    oldFilm.getId(), oldFilm.getDuration(), newFilm.getDuration());
-            oldFilm.setDuration(newFilm.getDuration());
-            changed = true;
+    @Override
+    public Film patch(Long id, FilmPatch patch) {
+        Film oldFilm = films.get(id);
+        if (oldFilm == null) {
+            log.warn("Фильм с id {} не найден", id);
+            throw new NotFoundException("Фильм с id " + id + " не найден");
         }
+        log.debug("Текущие данные фильма (ID: {}): {}", oldFilm.getId(), oldFilm);
 
-        if (changed) {
-            log.info("Фильм с ID {} успешно обновлен", oldFilm.getId());
-            log.debug("Обновленные данные фильма (ID: {}): {}", oldFilm.getId(), oldFilm);
-        } else {
-            log.info("Данные фильма с ID {} не изменились", oldFilm.getId());
+        synchronized (oldFilm) {
+            FilmFields.applyPatch(oldFilm, patch);
         }
 
         return oldFilm;
@@ -99,31 +84,30 @@ public class InMemoryFilmStorage implements FilmStorage {
         return Optional.ofNullable(films.get(id));
     }
 
-    private void validateFilm(Film film) {
-        validateDateRelease(film.getReleaseDate());
-        validateDuration(film.getDuration());
-    }
-
-    private void validateDateRelease(LocalDate dataRelease) {
-        if (dataRelease.isBefore(validateData)) {
-            throw new ValidationException("Дата релиза должна быть позже " + validateData.format(DateTimeFormatter.ISO_DATE));
+    @Override
+    public List<Film> findAllById(Collection<Long> ids) {
+        List<Film> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Film film = id == null ? null : films.get(id);
+            if (film != null) {
+                result.add(film);
+            }
         }
+        return result;
     }
 
-    private void validateDuration(Duration duration) {
-        if (duration.isNegative() || duration.isZero()) {
-            throw new ValidationException("Продолжительность фильма должно быть положительным числом");
+    @Override
+    public Optional<Film> delete(Long id) {
+        Film removed = id == null ? null : films.remove(id);
+        if (removed != null) {
+            log.info("Фильм '{}' (ID: {}) удалён", removed.getName(), removed.getId());
         }
+        return Optional.ofNullable(removed);
     }
 
     private long getNextId() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        long nextId = ++currentMaxId;
+        long nextId = lastId.incrementAndGet();
         log.debug("Сгенерирован новый ID для фильма: {}", nextId);
         return nextId;
     }
-}
\ No newline at end of file
+}
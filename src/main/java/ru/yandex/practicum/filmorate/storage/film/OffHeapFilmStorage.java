@@ -0,0 +1,184 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapRecordStore;
+import ru.yandex.practicum.filmorate.storage.offheap.RecordCodec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@Profile("off-heap")
+@Slf4j
+public class OffHeapFilmStorage implements FilmStorage {
+    private final OffHeapRecordStore records;
+    private final Map<Long, Set<Long>> likes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long lastId;
+
+    public OffHeapFilmStorage(@Value("${filmorate.storage.off-heap.chunk-size:8388608}") int chunkSize) {
+        this.records = new OffHeapRecordStore(chunkSize);
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        lock.readLock().lock();
+        try {
+            long[] ids = records.ids();
+            List<Film> result = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                result.add(materialize(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Film add(Film film) {
+        FilmFields.validateFilm(film);
+        FilmFields.prepareRelations(film);
+        byte[] record = RecordCodec.encodeFilm(film);
+
+        lock.writeLock().lock();
+        try {
+            film.setId(++lastId);
+            records.put(film.getId(), record);
+            likes.put(film.getId(), film.getLikes());
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Фильм '{}' (ID: {}) успешно добавлен", film.getName(), film.getId());
+        log.debug("Полная информация о добавленном фильме: {}", film);
+
+        return film;
+    }
+
+    @Override
+    public Film update(Film newFilm) {
+        if (newFilm.getId() == null) {
+            log.error("Ошибка: ID фильма должен быть указан");
+            throw new ValidationException("ID фильма должен быть указан");
+        }
+
+        return patch(newFilm.getId(), FilmPatch.of(newFilm));
+    }
+
+    /**
+     * Запись перекодируется целиком, только если изменились строки; дата и продолжительность
+     * перезаписываются в записи на месте.
+     */
+    @Override
+    public Film patch(Long id, FilmPatch patch) {
+        lock.writeLock().lock();
+        try {
+            if (id == null || !records.contains(id)) {
+                log.warn("Фильм с id {} не найден", id);
+                throw new NotFoundException("Фильм с id " + id + " не найден");
+            }
+
+            Film oldFilm = materialize(id);
+            log.debug("Текущие данные фильма (ID: {}): {}", oldFilm.getId(), oldFilm);
+
+            Set<FilmPatch.Field> changed = FilmFields.applyPatch(oldFilm, patch);
+            if (changed.contains(FilmPatch.Field.NAME) || changed.contains(FilmPatch.Field.DESCRIPTION)) {
+                records.put(id, RecordCodec.encodeFilm(oldFilm));
+                return oldFilm;
+            }
+            if (changed.contains(FilmPatch.Field.RELEASE_DATE)) {
+                records.putLong(id, RecordCodec.FILM_RELEASE_DATE, RecordCodec.epochDay(oldFilm.getReleaseDate()));
+            }
+            if (changed.contains(FilmPatch.Field.DURATION)) {
+                records.putLong(id, RecordCodec.FILM_DURATION_SECONDS, RecordCodec.seconds(oldFilm.getDuration()));
+                records.putInt(id, RecordCodec.FILM_DURATION_NANOS, RecordCodec.nanos(oldFilm.getDuration()));
+            }
+            return oldFilm;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Film> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            return id != null && records.contains(id) ? Optional.of(materialize(id)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Film> findAllById(Collection<Long> ids) {
+        lock.readLock().lock();
+        try {
+            List<Film> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                if (id != null && records.contains(id)) {
+                    result.add(materialize(id));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Множества лайков конкурентные, поэтому пачка идёт под блокировкой чтения и без декодирования записей.
+     */
+    @Override
+    public boolean[] addLikes(List<long[]> newLikes) {
+        boolean[] added = new boolean[newLikes.size()];
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < newLikes.size(); i++) {
+                Set<Long> filmLikes = likes.get(newLikes.get(i)[0]);
+                added[i] = filmLikes != null && filmLikes.add(newLikes.get(i)[1]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return added;
+    }
+
+    @Override
+    public Optional<Film> delete(Long id) {
+        Film removed;
+        lock.writeLock().lock();
+        try {
+            if (id == null || !records.contains(id)) {
+                return Optional.empty();
+            }
+            removed = materialize(id);
+            records.remove(id);
+            likes.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Фильм '{}' (ID: {}) удалён", removed.getName(), removed.getId());
+        return Optional.of(removed);
+    }
+
+    private Film materialize(long id) {
+        Film film = RecordCodec.decodeFilm(id, records.get(id));
+        film.setLikes(likes.get(id));
+        return film;
+    }
+}
@@ -0,0 +1,306 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
+import ru.yandex.practicum.filmorate.storage.offheap.RecordCodec;
+import ru.yandex.practicum.filmorate.storage.tiered.CacheStats;
+import ru.yandex.practicum.filmorate.storage.tiered.ColdReads;
+import ru.yandex.practicum.filmorate.storage.tiered.SegmentFile;
+import ru.yandex.practicum.filmorate.storage.tiered.WTinyLfuCache;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Двухуровневое хранилище фильмов: горячие фильмы в W-TinyLFU кеше, вытесненные — в файле сегмента.
+ * Запись в coldIndex всегда актуальна: поднятый в кеш фильм сохраняет холодную копию, пока не изменится.
+ * Изменения идут только через методы хранилища под его монитором и отбрасывают холодную копию,
+ * поэтому при вытеснении заново пишется лишь изменённый фильм. Наружу отдаются копии
+ * с лайками только для чтения, так что изменение в обход хранилища не может потеряться при вытеснении.
+ * Под монитором остаются только кеш, индекс и изменения сегмента: холодные записи читаются
+ * и декодируются до входа в него (см. {@link ColdReads}).
+ */
+@Component
+@Profile("tiered")
+@Slf4j
+public class TieredFilmStorage implements FilmStorage {
+    private final WTinyLfuCache<Film> hot;
+    private final SegmentFile cold;
+    private final LongLongHashMap coldIndex = new LongLongHashMap();
+    private long lastId;
+
+    public TieredFilmStorage(@Value("${filmorate.storage.tiered.max-hot-films:100000}") int maxHotFilms,
+                             @Value("${filmorate.storage.tiered.dir:${java.io.tmpdir}/filmorate}") Path directory) {
+        this.hot = new WTinyLfuCache<>(maxHotFilms, this::spill);
+        this.cold = new SegmentFile(directory.resolve("films.seg"));
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        ColdReads<Film> reads = readColdOutsideLock(null);
+        synchronized (this) {
+            List<Long> ids = hot.keys();
+            for (long id : coldIndex.keys()) {
+                if (hot.peek(id) == null) {
+                    ids.add(id);
+                }
+            }
+            ids.sort(null);
+            List<Film> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Film film = hot.peek(id);
+                result.add(FilmFields.readOnlyCopy(film != null ? film : readCold(id, reads)));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public synchronized Film add(Film film) {
+        FilmFields.validateFilm(film);
+        FilmFields.prepareRelations(film);
+        film.setId(++lastId);
+        // в кеше лежит собственная копия, не связанная с объектом вызывающего
+        Film stored = FilmFields.readOnlyCopy(film);
+        stored.setLikes(film.getLikes());
+        hot.put(stored.getId(), stored);
+
+        log.info("Фильм '{}' (ID: {}) успешно добавлен", film.getName(), film.getId());
+        log.debug("Полная информация о добавленном фильме: {}", film);
+
+        return FilmFields.readOnlyCopy(stored);
+    }
+
+    @Override
+    public Film update(Film newFilm) {
+        if (newFilm.getId() == null) {
+            log.error("Ошибка: ID фильма должен быть указан");
+            throw new ValidationException("ID фильма должен быть указан");
+        }
+
+        return patch(newFilm.getId(), FilmPatch.of(newFilm));
+    }
+
+    @Override
+    public Film patch(Long id, FilmPatch patch) {
+        ColdReads<Film> reads = readColdOutsideLock(singleton(id));
+        synchronized (this) {
+            Film oldFilm = id == null ? null : load(id, reads);
+            if (oldFilm == null) {
+                log.warn("Фильм с id {} не найден", id);
+                throw new NotFoundException("Фильм с id " + id + " не найден");
+            }
+            log.debug("Текущие данные фильма (ID: {}): {}", oldFilm.getId(), oldFilm);
+
+            if (!FilmFields.applyPatch(oldFilm, patch).isEmpty()) {
+                dropColdCopy(id);
+            }
+
+            return FilmFields.readOnlyCopy(oldFilm);
+        }
+    }
+
+    @Override
+    public Optional<Film> findById(Long id) {
+        ColdReads<Film> reads = readColdOutsideLock(singleton(id));
+        synchronized (this) {
+            Film film = id == null ? null : load(id, reads);
+            return film == null ? Optional.empty() : Optional.of(FilmFields.readOnlyCopy(film));
+        }
+    }
+
+    @Override
+    public List<Film> findAllById(Collection<Long> ids) {
+        ColdReads<Film> reads = readColdOutsideLock(ids);
+        synchronized (this) {
+            List<Film> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Film film = id == null ? null : load(id, reads);
+                if (film != null) {
+                    result.add(FilmFields.readOnlyCopy(film));
+                }
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public boolean addLike(Long filmId, Long userId) {
+        ColdReads<Film> reads = readColdOutsideLock(singleton(filmId));
+        synchronized (this) {
+            return mutate(filmId, reads, film -> film.getLikes().add(userId));
+        }
+    }
+
+    @Override
+    public boolean[] addLikes(List<long[]> likes) {
+        List<Long> filmIds = new ArrayList<>(likes.size());
+        likes.forEach(like -> filmIds.add(like[0]));
+        ColdReads<Film> reads = readColdOutsideLock(filmIds);
+        synchronized (this) {
+            boolean[] added = new boolean[likes.size()];
+            for (int i = 0; i < likes.size(); i++) {
+                long userId = likes.get(i)[1];
+                added[i] = mutate(likes.get(i)[0], reads, film -> film.getLikes().add(userId));
+            }
+            return added;
+        }
+    }
+
+    @Override
+    public boolean removeLike(Long filmId, Long userId) {
+        ColdReads<Film> reads = readColdOutsideLock(singleton(filmId));
+        synchronized (this) {
+            return mutate(filmId, reads, film -> film.getLikes().remove(userId));
+        }
+    }
+
+    @Override
+    public List<Long> purgeLikesOf(Long userId, Collection<Long> filmIds) {
+        ColdReads<Film> reads = readColdOutsideLock(filmIds);
+        synchronized (this) {
+            List<Long> purged = new ArrayList<>(filmIds.size());
+            for (Long filmId : filmIds) {
+                if (mutate(filmId, reads, film -> film.getLikes().remove(userId))) {
+                    purged.add(filmId);
+                }
+            }
+            return purged;
+        }
+    }
+
+    /**
+     * Удаляет фильм из кэша и индекса холодного сегмента, не поднимая его в кэш; запись
+     * в файле сегмента становится мёртвой.
+     */
+    @Override
+    public Optional<Film> delete(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        ColdReads<Film> reads = readColdOutsideLock(singleton(id));
+        synchronized (this) {
+            Film removed = hot.remove(id);
+            if (removed == null && coldIndex.containsKey(id)) {
+                removed = readCold(id, reads);
+            }
+            dropColdCopy(id);
+            if (removed != null) {
+                log.info("Фильм '{}' (ID: {}) удалён", removed.getName(), removed.getId());
+            }
+            return Optional.ofNullable(removed);
+        }
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hot.getHits(), hot.getMisses(), hot.getEvictions(), hot.size(), coldIndex.size(),
+                cold.size(), cold.garbageBytes());
+    }
+
+    /**
+     * Переписывает файл сегмента без мёртвых записей. Вызывается автоматически, когда мёртвых
+     * байт становится больше половины файла.
+     */
+    public synchronized void compact() {
+        cold.compact(coldIndex);
+    }
+
+    @PreDestroy
+    public void close() {
+        cold.close();
+    }
+
+    /**
+     * Изменение живого фильма под монитором хранилища; если оно удалось, холодная копия устаревает.
+     */
+    private boolean mutate(Long id, ColdReads<Film> reads, Predicate<Film> change) {
+        Film film = id == null ? null : load(id, reads);
+        if (film == null || !change.test(film)) {
+            return false;
+        }
+        dropColdCopy(id);
+        return true;
+    }
+
+    /**
+     * Читает с диска холодные записи фильмов ids (null — всех), которых нет в кеше,
+     * удерживая монитор только на время поиска смещений.
+     */
+    private ColdReads<Film> readColdOutsideLock(Collection<Long> ids) {
+        ColdReads<Film> reads;
+        synchronized (this) {
+            reads = new ColdReads<>(cold.generation());
+            if (ids == null) {
+                for (long id : coldIndex.keys()) {
+                    if (hot.peek(id) == null) {
+                        reads.plan(id, coldIndex.get(id, -1L));
+                    }
+                }
+            } else {
+                for (Long id : ids) {
+                    long offset = id == null || hot.peek(id) != null ? -1L : coldIndex.get(id, -1L);
+                    if (offset >= 0) {
+                        reads.plan(id, offset);
+                    }
+                }
+            }
+        }
+        reads.fetch(cold, RecordCodec::decodeFilm);
+        return reads;
+    }
+
+    private Film load(long id, ColdReads<Film> reads) {
+        Film film = hot.get(id);
+        if (film != null || !coldIndex.containsKey(id)) {
+            return film;
+        }
+        film = readCold(id, reads);
+        hot.put(id, film);
+        return film;
+    }
+
+    /**
+     * Запись, прочитанная вне монитора, если она ещё актуальна; иначе чтение под монитором.
+     */
+    private Film readCold(long id, ColdReads<Film> reads) {
+        Film film = reads.take(id, coldIndex, cold);
+        return film != null ? film : RecordCodec.decodeFilm(id, cold.read(coldIndex.get(id, -1L)));
+    }
+
+    private static Collection<Long> singleton(Long id) {
+        return id == null ? List.of() : List.of(id);
+    }
+
+    private void dropColdCopy(long id) {
+        long offset = coldIndex.get(id, -1L);
+        if (offset < 0) {
+            return;
+        }
+        coldIndex.remove(id);
+        cold.release(offset);
+        if (cold.needsCompaction()) {
+            cold.compact(coldIndex);
+        }
+    }
+
+    /**
+     * Неизменённый фильм уже лежит в сегменте, поэтому при вытеснении пишется только изменённый.
+     */
+    private void spill(Long id, Film film) {
+        if (!coldIndex.containsKey(id)) {
+            coldIndex.put(id, cold.append(RecordCodec.encodeFilm(film, true)));
+        }
+    }
+}
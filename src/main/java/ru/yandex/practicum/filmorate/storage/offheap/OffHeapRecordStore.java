@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Хранилище двоичных записей вне кучи: записи лежат в прямых {@link ByteBuffer},
+ * а индекс id -> адрес хранится в примитивной хеш-таблице.
+ * Слот записи: [int ёмкость][int длина][байты]. Адрес — номер чанка в старших 32 битах и смещение в младших.
+ * Слоты, освобождённые удалением или переносом записи, копятся в wastedBytes; когда мёртвых байтов
+ * не меньше чанка и больше половины выделенного, живые записи переписываются плотно в новые чанки,
+ * а старые буферы отдаются сборщику.
+ * Класс не потокобезопасен, синхронизация — на стороне вызывающего хранилища.
+ */
+public class OffHeapRecordStore {
+    private static final int SLOT_HEADER = Integer.BYTES * 2;
+
+    private final int chunkSize;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private final LongLongHashMap index = new LongLongHashMap();
+    private ByteBuffer current;
+    private long allocatedBytes;
+    private long wastedBytes;
+
+    public OffHeapRecordStore(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public void put(long id, byte[] record) {
+        long address = index.get(id, -1L);
+        if (address >= 0) {
+            ByteBuffer chunk = chunks.get(chunkOf(address));
+            int offset = offsetOf(address);
+            int capacity = chunk.getInt(offset);
+            if (record.length <= capacity) {
+                chunk.putInt(offset + Integer.BYTES, record.length);
+                chunk.put(offset + SLOT_HEADER, record);
+                return;
+            }
+            wastedBytes += SLOT_HEADER + capacity;
+        }
+        index.put(id, append(ByteBuffer.wrap(record)));
+        compactIfNeeded();
+    }
+
+    /**
+     * Перезаписывает число фиксированной длины внутри существующей записи по смещению position.
+     */
+    public void putLong(long id, int position, long value) {
+        long address = address(id);
+        chunks.get(chunkOf(address)).putLong(offsetOf(address) + SLOT_HEADER + position, value);
+    }
+
+    public void putInt(long id, int position, int value) {
+        long address = address(id);
+        chunks.get(chunkOf(address)).putInt(offsetOf(address) + SLOT_HEADER + position, value);
+    }
+
+    public byte[] get(long id) {
+        long address = index.get(id, -1L);
+        if (address < 0) {
+            return null;
+        }
+        ByteBuffer chunk = chunks.get(chunkOf(address));
+        int offset = offsetOf(address);
+        byte[] record = new byte[chunk.getInt(offset + Integer.BYTES)];
+        chunk.get(offset + SLOT_HEADER, record);
+        return record;
+    }
+
+    public boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    public boolean remove(long id) {
+        long address = index.get(id, -1L);
+        if (address < 0) {
+            return false;
+        }
+        wastedBytes += SLOT_HEADER + chunks.get(chunkOf(address)).getInt(offsetOf(address));
+        index.remove(id);
+        compactIfNeeded();
+        return true;
+    }
+
+    public long[] ids() {
+        long[] ids = index.keys();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long wastedBytes() {
+        return wastedBytes;
+    }
+
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Переписывает живые записи подряд в новые чанки. Ёмкость слота сжимается до длины записи.
+     */
+    public void compact() {
+        List<ByteBuffer> live = new ArrayList<>(chunks);
+        chunks.clear();
+        current = null;
+        allocatedBytes = 0;
+        wastedBytes = 0;
+        for (long id : index.keys()) {
+            long address = index.get(id, -1L);
+            ByteBuffer chunk = live.get(chunkOf(address));
+            int offset = offsetOf(address);
+            index.put(id, append(chunk.slice(offset + SLOT_HEADER, chunk.getInt(offset + Integer.BYTES))));
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (wastedBytes >= chunkSize && wastedBytes * 2 > allocatedBytes) {
+            compact();
+        }
+    }
+
+    private long append(ByteBuffer record) {
+        int length = record.remaining();
+        int slotSize = SLOT_HEADER + length;
+        if (current == null || current.remaining() < slotSize) {
+            current = ByteBuffer.allocateDirect(Math.max(chunkSize, slotSize));
+            chunks.add(current);
+            allocatedBytes += current.capacity();
+        }
+        int offset = current.position();
+        current.putInt(length);
+        current.putInt(length);
+        current.put(record);
+        return ((long) (chunks.size() - 1) << 32) | offset;
+    }
+
+    private long address(long id) {
+        long address = index.get(id, -1L);
+        if (address < 0) {
+            throw new IllegalStateException("Запись с id " + id + " отсутствует");
+        }
+        return address;
+    }
+
+    private static int chunkOf(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,166 @@
+package ru.yandex.practicum.filmorate.storage.offheap;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Фиксированная раскладка записей фильмов и пользователей: сначала числовые поля,
+ * затем строки в UTF-8 с префиксом длины (-1 для null). Вариант withRelations дописывает в конец
+ * наборы id лайков и друзей, при декодировании они читаются, только если присутствуют в записи.
+ */
+public final class RecordCodec {
+    /**
+     * Смещения полей фиксированной длины: их можно перезаписать в записи на месте, не перекодируя строки.
+     */
+    public static final int FILM_RELEASE_DATE = 0;
+    public static final int FILM_DURATION_SECONDS = Long.BYTES;
+    public static final int FILM_DURATION_NANOS = Long.BYTES * 2;
+    public static final int USER_BIRTHDAY = 0;
+
+    private static final long NULL_LONG = Long.MIN_VALUE;
+
+    private RecordCodec() {
+    }
+
+    public static byte[] encodeFilm(Film film) {
+        return encodeFilm(film, false);
+    }
+
+    public static byte[] encodeFilm(Film film, boolean withRelations) {
+        byte[] name = utf8(film.getName());
+        byte[] description = utf8(film.getDescription());
+        Object[] likes = withRelations ? film.getLikes().toArray() : null;
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 2 + Integer.BYTES
+                + sizeOf(name) + sizeOf(description) + sizeOf(likes));
+        buffer.putLong(epochDay(film.getReleaseDate()));
+        buffer.putLong(seconds(film.getDuration()));
+        buffer.putInt(nanos(film.getDuration()));
+        putString(buffer, name);
+        putString(buffer, description);
+        putIds(buffer, likes);
+        return buffer.array();
+    }
+
+    public static Film decodeFilm(long id, byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        Film film = new Film();
+        film.setId(id);
+        long epochDay = buffer.getLong();
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        film.setReleaseDate(epochDay == NULL_LONG ? null : LocalDate.ofEpochDay(epochDay));
+        film.setDuration(seconds == NULL_LONG ? null : Duration.ofSeconds(seconds, nanos));
+        film.setName(getString(buffer));
+        film.setDescription(getString(buffer));
+        if (buffer.hasRemaining()) {
+            film.setLikes(getIds(buffer));
+        }
+        return film;
+    }
+
+    public static byte[] encodeUser(User user) {
+        return encodeUser(user, false);
+    }
+
+    public static byte[] encodeUser(User user, boolean withRelations) {
+        byte[] email = utf8(user.getEmail());
+        byte[] login = utf8(user.getLogin());
+        byte[] name = utf8(user.getName());
+        Object[] friends = withRelations ? user.getFriendsId().toArray() : null;
+        Object[] likedFilms = withRelations ? user.getLikedFilmId().toArray() : null;
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + sizeOf(email) + sizeOf(login) + sizeOf(name)
+                + sizeOf(friends) + sizeOf(likedFilms));
+        buffer.putLong(epochDay(user.getBirthday()));
+        putString(buffer, email);
+        putString(buffer, login);
+        putString(buffer, name);
+        putIds(buffer, friends);
+        putIds(buffer, likedFilms);
+        return buffer.array();
+    }
+
+    public static User decodeUser(long id, byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        User user = new User();
+        user.setId(id);
+        long epochDay = buffer.getLong();
+        user.setBirthday(epochDay == NULL_LONG ? null : LocalDate.ofEpochDay(epochDay));
+        user.setEmail(getString(buffer));
+        user.setLogin(getString(buffer));
+        user.setName(getString(buffer));
+        if (buffer.hasRemaining()) {
+            user.setFriendsId(getIds(buffer));
+            user.setLikedFilmId(getIds(buffer));
+        }
+        return user;
+    }
+
+    public static long epochDay(LocalDate date) {
+        return date == null ? NULL_LONG : date.toEpochDay();
+    }
+
+    public static long seconds(Duration duration) {
+        return duration == null ? NULL_LONG : duration.getSeconds();
+    }
+
+    public static int nanos(Duration duration) {
+        return duration == null ? 0 : duration.getNano();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    private static int sizeOf(Object[] ids) {
+        return ids == null ? 0 : Integer.BYTES + ids.length * Long.BYTES;
+    }
+
+    private static void putIds(ByteBuffer buffer, Object[] ids) {
+        if (ids == null) {
+            return;
+        }
+        buffer.putInt(ids.length);
+        for (Object id : ids) {
+            buffer.putLong((Long) id);
+        }
+    }
+
+    private static Set<Long> getIds(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        Set<Long> ids = ConcurrentHashMap.newKeySet(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(buffer.getLong());
+        }
+        return ids;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
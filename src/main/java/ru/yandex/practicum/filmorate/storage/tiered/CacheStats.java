@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.storage.tiered;
+
+import lombok.Data;
+
+@Data
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int hotSize;
+    private final int coldSize;
+    private final long coldFileBytes;
+    private final long coldGarbageBytes;
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
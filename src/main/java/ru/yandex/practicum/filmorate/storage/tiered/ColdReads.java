@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.storage.tiered;
+
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Холодные записи, прочитанные с диска вне монитора хранилища. Под монитором хранилище
+ * отмечает нужные смещения, чтение и декодирование идут без него, а запись используется,
+ * только если её смещение в индексе и поколение сегмента с тех пор не изменились.
+ * Иначе хранилище читает запись заново, уже под монитором.
+ */
+public class ColdReads<V> {
+    private final long generation;
+    private final LongLongHashMap offsets = new LongLongHashMap();
+    private final Map<Long, V> values = new HashMap<>();
+
+    public ColdReads(long generation) {
+        this.generation = generation;
+    }
+
+    public void plan(long id, long offset) {
+        offsets.put(id, offset);
+    }
+
+    /**
+     * Вызывается без монитора хранилища. Если сегмент уплотнили во время чтения,
+     * оставшиеся записи не читаются.
+     */
+    public void fetch(SegmentFile cold, Decoder<V> decoder) {
+        for (long id : offsets.keys()) {
+            byte[] record = cold.read(offsets.get(id, -1L), generation);
+            if (record == null) {
+                return;
+            }
+            values.put(id, decoder.decode(id, record));
+        }
+    }
+
+    /**
+     * Вызывается под монитором хранилища: запись, ещё соответствующая индексу, или null.
+     */
+    public V take(long id, LongLongHashMap coldIndex, SegmentFile cold) {
+        V value = values.remove(id);
+        if (value == null || cold.generation() != generation
+                || coldIndex.get(id, -1L) != offsets.get(id, -1L)) {
+            return null;
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    public interface Decoder<V> {
+        V decode(long id, byte[] record);
+    }
+}
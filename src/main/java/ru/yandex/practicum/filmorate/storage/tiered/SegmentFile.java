@@ -0,0 +1,183 @@
+package ru.yandex.practicum.filmorate.storage.tiered;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Файл-сегмент только для дозаписи: запись — [int длина][байты], чтение — позиционное,
+ * без смещения общей позиции канала. Содержимое не переживает перезапуск: файл
+ * обрезается при открытии, так как это лишь холодный уровень кеша.
+ * Устаревшие записи отмечаются через {@link #release(long)}; когда мёртвых байт становится больше,
+ * чем живых, {@link #compact(LongLongHashMap)} переписывает живые записи в новый файл подряд.
+ * Дозапись и уплотнение идут под монитором хранилища, а читать можно и без него через
+ * {@link #read(long, long)}: уплотнение меняет поколение файла, и смещения прошлого поколения
+ * не читаются из нового файла.
+ */
+@Slf4j
+public class SegmentFile implements Closeable {
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+
+    private final Path path;
+    private volatile FileChannel channel;
+    private volatile long generation;
+    private long size;
+    private long garbageBytes;
+
+    public SegmentFile(Path path) {
+        this.path = path;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            channel = open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть файл сегмента " + path, e);
+        }
+    }
+
+    public long append(byte[] record) {
+        long offset = size;
+        size += write(channel, offset, record);
+        return offset;
+    }
+
+    public byte[] read(long offset) {
+        return read(channel, offset);
+    }
+
+    /**
+     * Чтение без монитора хранилища по смещению, полученному в поколении generation.
+     * Возвращает null, если файл с тех пор уплотнили: смещение могло устареть.
+     */
+    public byte[] read(long offset, long generation) {
+        FileChannel source = channel;
+        if (generation != this.generation) {
+            return null;
+        }
+        try {
+            return read(source, offset);
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof ClosedChannelException && generation != this.generation) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Отмечает запись по смещению мёртвой: её место вернёт следующее уплотнение.
+     */
+    public void release(long offset) {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, length, offset);
+        garbageBytes += Integer.BYTES + length.flip().getInt();
+    }
+
+    public boolean needsCompaction() {
+        return size >= MIN_COMPACTION_BYTES && garbageBytes * 2 > size;
+    }
+
+    /**
+     * Переписывает записи из индекса id -> смещение во временный файл подряд, подменяет им сегмент
+     * и обновляет смещения в индексе. Индекс должен содержать все живые записи.
+     */
+    public void compact(LongLongHashMap index) {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        long before = size;
+        try {
+            FileChannel target = open(compacted);
+            long written = 0;
+            try {
+                for (long id : index.keys()) {
+                    byte[] record = read(channel, index.get(id, -1L));
+                    index.put(id, written);
+                    written += write(target, written, record);
+                }
+                Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                target.close();
+                throw e;
+            }
+            FileChannel previous = channel;
+            // поколение меняется раньше канала: читатель, увидевший новый канал, увидит и новое поколение
+            generation++;
+            channel = target;
+            previous.close();
+            size = written;
+            garbageBytes = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка уплотнения файла сегмента " + path, e);
+        }
+        log.info("Сегмент {} уплотнён: {} -> {} байт", path.getFileName(), before, size);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long garbageBytes() {
+        return garbageBytes;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка закрытия файла сегмента", e);
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static int write(FileChannel target, long offset, byte[] record) {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + record.length);
+        buffer.putInt(record.length).put(record).flip();
+        try {
+            long position = offset;
+            while (buffer.hasRemaining()) {
+                position += target.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи в файл сегмента", e);
+        }
+        return buffer.capacity();
+    }
+
+    private static byte[] read(FileChannel source, long offset) {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(source, length, offset);
+        ByteBuffer record = ByteBuffer.allocate(length.flip().getInt());
+        readFully(source, record, offset + Integer.BYTES);
+        return record.array();
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                int read = source.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new IOException("Неожиданный конец файла сегмента на позиции " + position);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения файла сегмента", e);
+        }
+    }
+}
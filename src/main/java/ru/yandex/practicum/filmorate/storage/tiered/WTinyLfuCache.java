@@ -0,0 +1,161 @@
+package ru.yandex.practicum.filmorate.storage.tiered;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Ограниченный кеш с политикой W-TinyLFU: маленькое LRU-окно (около 1% ёмкости) и основная
+ * SLRU-область (испытательный и защищённый сегменты). Кандидат из окна попадает в основную
+ * область, только если по частотному скетчу он «популярнее» жертвы из испытательного сегмента.
+ * Вытесненные записи передаются слушателю, который сбрасывает их на диск.
+ * Класс не потокобезопасен, синхронизация — на стороне хранилища.
+ */
+public class WTinyLfuCache<V> {
+    private final int windowMax;
+    private final int mainMax;
+    private final int protectedMax;
+    private final LinkedHashMap<Long, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final BiConsumer<Long, V> evictionListener;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public WTinyLfuCache(int maximumSize, BiConsumer<Long, V> evictionListener) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Размер кеша должен быть положительным: " + maximumSize);
+        }
+        this.windowMax = Math.max(1, maximumSize / 100);
+        this.mainMax = maximumSize - windowMax;
+        this.protectedMax = (int) (mainMax * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+        this.evictionListener = evictionListener;
+    }
+
+    public V get(long key) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value == null) {
+            value = protectedSegment.get(key);
+        }
+        if (value == null) {
+            value = probation.remove(key);
+            if (value != null) {
+                protectedSegment.put(key, value);
+                demoteProtectedOverflow();
+            }
+        }
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    public V peek(long key) {
+        V value = window.get(key);
+        if (value == null) {
+            value = protectedSegment.get(key);
+        }
+        return value != null ? value : probation.get(key);
+    }
+
+    public void put(long key, V value) {
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        if (probation.containsKey(key)) {
+            probation.put(key, value);
+            return;
+        }
+        sketch.increment(key);
+        window.put(key, value);
+        if (window.size() > windowMax) {
+            Map.Entry<Long, V> candidate = pollEldest(window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    public V remove(long key) {
+        V value = window.remove(key);
+        if (value == null) {
+            value = protectedSegment.remove(key);
+        }
+        return value != null ? value : probation.remove(key);
+    }
+
+    public List<Long> keys() {
+        List<Long> keys = new ArrayList<>(size());
+        keys.addAll(window.keySet());
+        keys.addAll(probation.keySet());
+        keys.addAll(protectedSegment.keySet());
+        return keys;
+    }
+
+    public int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    private void admit(Long key, V value) {
+        if (probation.size() + protectedSegment.size() < mainMax) {
+            probation.put(key, value);
+            return;
+        }
+        LinkedHashMap<Long, V> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        if (victimSegment.isEmpty()) {
+            evict(key, value);
+            return;
+        }
+        Long victimKey = victimSegment.keySet().iterator().next();
+        if (sketch.frequency(key) > sketch.frequency(victimKey)) {
+            evict(victimKey, victimSegment.remove(victimKey));
+            probation.put(key, value);
+        } else {
+            evict(key, value);
+        }
+    }
+
+    private void demoteProtectedOverflow() {
+        while (protectedSegment.size() > protectedMax) {
+            Map.Entry<Long, V> eldest = pollEldest(protectedSegment);
+            probation.put(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void evict(Long key, V value) {
+        evictions++;
+        evictionListener.accept(key, value);
+    }
+
+    private static <V> Map.Entry<Long, V> pollEldest(LinkedHashMap<Long, V> segment) {
+        Iterator<Map.Entry<Long, V>> iterator = segment.entrySet().iterator();
+        Map.Entry<Long, V> first = iterator.next();
+        Map.Entry<Long, V> eldest = Map.entry(first.getKey(), first.getValue());
+        iterator.remove();
+        return eldest;
+    }
+}
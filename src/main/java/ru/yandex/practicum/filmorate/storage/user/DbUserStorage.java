@@ -0,0 +1,375 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Хранилище пользователей во встроенной БД. Дружба хранится двумя строками в friends,
+ * обе пишутся одним пакетом. Уникальность email и логина обеспечивают индексы по нормализованным колонкам.
+ */
+@Component
+@Profile("db")
+@Slf4j
+public class DbUserStorage implements UserStorage {
+    private static final String USER_COLUMNS = "u.id, u.email, u.login, u.name, u.birthday";
+    private static final String INSERT_USER = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+
+    public DbUserStorage(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        Map<Long, User> users = new LinkedHashMap<>();
+        jdbc.query("SELECT " + USER_COLUMNS + " FROM users u ORDER BY u.id",
+                resultSet -> {
+                    User user = mapUser(resultSet);
+                    users.put(user.getId(), user);
+                });
+        jdbc.query("SELECT user_id, friend_id FROM friends",
+                relation(users, User::getFriendsId));
+        jdbc.query("SELECT user_id, film_id FROM likes",
+                relation(users, User::getLikedFilmId));
+        return new ArrayList<>(users.values());
+    }
+
+    @Override
+    public User create(User user) {
+        UserFields.fillDefaultName(user);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            jdbc.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT_USER, new String[]{"id"});
+                bindUser(statement, user);
+                return statement;
+            }, keyHolder);
+        } catch (DuplicateKeyException e) {
+            throw duplicate(e, user);
+        }
+        user.setId(keyHolder.getKeyAs(Long.class));
+        user.setFriendsId(ConcurrentHashMap.newKeySet());
+        user.setLikedFilmId(ConcurrentHashMap.newKeySet());
+
+        log.info("Пользователь '{}' (ID: {}) успешно создан", user.getLogin(), user.getId());
+        log.debug("Полная информация о созданном пользователе: {}", user);
+
+        return user;
+    }
+
+    @Override
+    @Transactional
+    public List<User> createAll(List<User> newUsers) {
+        newUsers.forEach(UserFields::fillDefaultName);
+        try {
+            jdbc.execute((ConnectionCallback<Void>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_USER, new String[]{"id"})) {
+                    for (User user : newUsers) {
+                        bindUser(statement, user);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (User user : newUsers) {
+                            keys.next();
+                            user.setId(keys.getLong(1));
+                            user.setFriendsId(ConcurrentHashMap.newKeySet());
+                            user.setLikedFilmId(ConcurrentHashMap.newKeySet());
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (DuplicateKeyException e) {
+            throw new AlreadyExistsException("Пакет содержит пользователя с существующим email или логином");
+        }
+        log.info("Пакетно создано пользователей: {}", newUsers.size());
+        return newUsers;
+    }
+
+    @Override
+    @Transactional
+    public User update(User newUser) {
+        if (newUser.getId() == null) {
+            log.error("Ошибка: ID пользователя должен быть указан");
+            throw new ValidationException("ID пользователя должен быть указан");
+        }
+
+        return patch(newUser.getId(), UserPatch.of(newUser));
+    }
+
+    /**
+     * UPDATE затрагивает только изменившиеся колонки. Строка пользователя блокируется (SELECT ... FOR UPDATE)
+     * до чтения, чтобы параллельный patch не перезаписал изменения, прочитанные до него.
+     */
+    @Override
+    @Transactional
+    public User patch(Long id, UserPatch patch) {
+        List<Long> locked = jdbc.queryForList("SELECT id FROM users WHERE id = ? FOR UPDATE", Long.class, id);
+        User oldUser = locked.isEmpty() ? null : findById(id).orElse(null);
+        if (oldUser == null) {
+            log.warn("Пользователь с id {} не найден", id);
+            throw new NotFoundException("Пользователь с id " + id + " не найден");
+        }
+        log.debug("Текущие данные пользователя (ID: {}): {}", oldUser.getId(), oldUser);
+
+        Set<UserPatch.Field> changed = UserFields.applyPatch(oldUser, patch);
+        if (changed.isEmpty()) {
+            return oldUser;
+        }
+        List<String> columns = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        if (changed.contains(UserPatch.Field.EMAIL)) {
+            columns.add("email = ?");
+            values.add(oldUser.getEmail());
+        }
+        if (changed.contains(UserPatch.Field.LOGIN)) {
+            columns.add("login = ?");
+            values.add(oldUser.getLogin());
+        }
+        if (changed.contains(UserPatch.Field.NAME)) {
+            columns.add("name = ?");
+            values.add(oldUser.getName());
+        }
+        if (changed.contains(UserPatch.Field.BIRTHDAY)) {
+            columns.add("birthday = ?");
+            values.add(new SqlParameterValue(Types.DATE,
+                    oldUser.getBirthday() == null ? null : Date.valueOf(oldUser.getBirthday())));
+        }
+        values.add(id);
+        try {
+            jdbc.update("UPDATE users SET " + String.join(", ", columns) + " WHERE id = ?", values.toArray());
+        } catch (DuplicateKeyException e) {
+            throw duplicate(e, oldUser);
+        }
+        return oldUser;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return id == null ? Optional.empty() : findOne("u.id = ?", id);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return email == null ? Optional.empty() : findOne("u.email_key = ?", normalize(email));
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return login == null ? Optional.empty() : findOne("u.login_key = ?", normalize(login));
+    }
+
+    /**
+     * Один запрос с id = ANY(?) и по одному запросу на друзей и лайки всей пачки; порядок ответа — порядок запроса.
+     */
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<User> users = findMany("SELECT " + USER_COLUMNS + " FROM users u WHERE u.id = ANY(?)",
+                (Object) ids.toArray(new Long[0]));
+        Map<Long, User> byId = new HashMap<>();
+        users.forEach(user -> byId.put(user.getId(), user));
+        List<User> result = new ArrayList<>(users.size());
+        for (Long id : ids) {
+            User user = byId.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Дружбы и лайки пользователя удаляются каскадом в той же транзакции; счётчики likes_count
+     * его фильмов уменьшаются до удаления, пока строки likes ещё на месте.
+     */
+    @Override
+    @Transactional
+    public Optional<User> delete(Long id) {
+        Optional<User> removed = findById(id);
+        removed.ifPresent(user -> {
+            jdbc.update("UPDATE films SET likes_count = likes_count - 1 "
+                    + "WHERE id IN (SELECT film_id FROM likes WHERE user_id = ?)", user.getId());
+            jdbc.update("DELETE FROM users WHERE id = ?", user.getId());
+            log.info("Пользователь '{}' (ID: {}) удалён", user.getLogin(), user.getId());
+        });
+        return removed;
+    }
+
+    @Override
+    public void purgeFriendsOf(Long userId, Collection<Long> friendIds) {
+        // строки friends уже удалены каскадом вместе с пользователем
+    }
+
+    @Override
+    public void purgeLikedFilm(Long filmId, Collection<Long> userIds) {
+        // строки likes уже удалены каскадом вместе с фильмом
+    }
+
+    @Override
+    public void addLikedFilm(Long userId, Long filmId) {
+        // строка likes уже записана в DbFilmStorage.addLike
+    }
+
+    @Override
+    public void addLikedFilms(List<long[]> likes) {
+        // строки likes уже записаны в DbFilmStorage.addLikes
+    }
+
+    @Override
+    public void removeLikedFilm(Long userId, Long filmId) {
+        // строка likes уже удалена в DbFilmStorage.removeLike
+    }
+
+    @Override
+    public Set<Long> findFriendIds(Long userId) {
+        Set<Long> friendIds = new HashSet<>();
+        jdbc.query("SELECT friend_id FROM friends WHERE user_id = ?",
+                (RowCallbackHandler) resultSet -> friendIds.add(resultSet.getLong(1)), userId);
+        return friendIds;
+    }
+
+    @Override
+    public int countFriends(Long userId) {
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM friends WHERE user_id = ?", Integer.class, userId);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    @Transactional
+    public void addFriend(Long userId, Long friendId) {
+        jdbc.batchUpdate("MERGE INTO friends (user_id, friend_id) KEY (user_id, friend_id) VALUES (?, ?)",
+                List.of(new Object[]{userId, friendId}, new Object[]{friendId, userId}));
+    }
+
+    /**
+     * Обе строки каждой дружбы вставляются одним JDBC-пакетом; дружба с отсутствующим пользователем
+     * пропускается целиком, а не обрывает пакет ошибкой внешнего ключа.
+     */
+    @Override
+    @Transactional
+    public void addFriends(List<long[]> friendships) {
+        if (friendships.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(friendships.size() * 2);
+        for (long[] friendship : friendships) {
+            rows.add(new Object[]{friendship[0], friendship[1], friendship[0], friendship[1]});
+            rows.add(new Object[]{friendship[1], friendship[0], friendship[0], friendship[1]});
+        }
+        jdbc.batchUpdate("MERGE INTO friends (user_id, friend_id) KEY (user_id, friend_id) "
+                + "SELECT ?, ? WHERE EXISTS (SELECT 1 FROM users WHERE id = ?) "
+                + "AND EXISTS (SELECT 1 FROM users WHERE id = ?)", rows);
+    }
+
+    @Override
+    @Transactional
+    public void removeFriend(Long userId, Long friendId) {
+        jdbc.batchUpdate("DELETE FROM friends WHERE user_id = ? AND friend_id = ?",
+                List.of(new Object[]{userId, friendId}, new Object[]{friendId, userId}));
+    }
+
+    @Override
+    public List<User> findCommonFriends(Long userId, Long otherId) {
+        return findMany("SELECT " + USER_COLUMNS + " FROM friends a "
+                + "JOIN friends b ON b.friend_id = a.friend_id AND b.user_id = ? "
+                + "JOIN users u ON u.id = a.friend_id "
+                + "WHERE a.user_id = ? ORDER BY u.id", otherId, userId);
+    }
+
+    private Optional<User> findOne(String condition, Object value) {
+        return findMany("SELECT " + USER_COLUMNS + " FROM users u WHERE " + condition, value).stream().findFirst();
+    }
+
+    private List<User> findMany(String sql, Object... args) {
+        Map<Long, User> users = new LinkedHashMap<>();
+        jdbc.query(sql, resultSet -> {
+            User user = mapUser(resultSet);
+            users.put(user.getId(), user);
+        }, args);
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        Long[] ids = users.keySet().toArray(new Long[0]);
+        jdbc.query("SELECT user_id, friend_id FROM friends WHERE user_id = ANY(?)",
+                relation(users, User::getFriendsId), (Object) ids);
+        jdbc.query("SELECT user_id, film_id FROM likes WHERE user_id = ANY(?)",
+                relation(users, User::getLikedFilmId), (Object) ids);
+        return new ArrayList<>(users.values());
+    }
+
+    private static RowCallbackHandler relation(Map<Long, User> users, Function<User, Set<Long>> target) {
+        return resultSet -> {
+            User user = users.get(resultSet.getLong(1));
+            if (user != null) {
+                target.apply(user).add(resultSet.getLong(2));
+            }
+        };
+    }
+
+    private static void bindUser(PreparedStatement statement, User user) throws SQLException {
+        statement.setString(1, user.getEmail());
+        statement.setString(2, user.getLogin());
+        statement.setString(3, user.getName());
+        statement.setDate(4, user.getBirthday() == null ? null : Date.valueOf(user.getBirthday()));
+    }
+
+    private static User mapUser(ResultSet resultSet) throws SQLException {
+        User user = new User();
+        user.setId(resultSet.getLong("id"));
+        user.setEmail(resultSet.getString("email"));
+        user.setLogin(resultSet.getString("login"));
+        user.setName(resultSet.getString("name"));
+        Date birthday = resultSet.getDate("birthday");
+        user.setBirthday(birthday == null ? null : birthday.toLocalDate());
+        return user;
+    }
+
+    private static AlreadyExistsException duplicate(DuplicateKeyException e, User user) {
+        String message = String.valueOf(e.getMessage()).toUpperCase(Locale.ROOT);
+        if (message.contains("USERS_LOGIN_UQ")) {
+            return new AlreadyExistsException("Пользователь с логином " + normalize(user.getLogin()) + " уже существует");
+        }
+        return new AlreadyExistsException("Пользователь с email " + normalize(user.getEmail()) + " уже существует");
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
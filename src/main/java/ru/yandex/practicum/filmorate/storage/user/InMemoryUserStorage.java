@@ -1,20 +1,28 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
+@Profile("!off-heap & !tiered & !db")
 @Slf4j
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Long, User> users = new HashMap<>();
+    private final UserUniqueIndex uniqueIndex = new UserUniqueIndex();
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
 
     @Override
     public Collection<User> findAll() {
@@ -24,10 +32,9 @@ public class InMemoryUserStorage implements UserStorage {
     @Override
     public User create(User user) {
         user.setId(getNextId());
-        if (user.getName() == null) {
-            log.info("Имя пользователя не указано, используется логин: {}", user.getLogin());
-            user.setName(user.getLogin());
-        }
+        UserFields.fillDefaultName(user);
+        UserFields.prepareRelations(user);
+        uniqueIndex.reserve(user);
         users.put(user.getId(), user);
 
         log.info("Пользователь '{}' (ID: {}) успешно создан", user.getLogin(), user.getId());
@@ -36,6 +43,28 @@ public class InMemoryUserStorage implements UserStorage {
         return user;
     }
 
+    @Override
+    public List<User> createAll(List<User> newUsers) {
+        List<User> reserved = new ArrayList<>(newUsers.size());
+        try {
+            for (User user : newUsers) {
+                user.setId(getNextId());
+                UserFields.fillDefaultName(user);
+                UserFields.prepareRelations(user);
+                uniqueIndex.reserve(user);
+                reserved.add(user);
+            }
+        } catch (RuntimeException e) {
+            reserved.forEach(uniqueIndex::release);
+            throw e;
+        }
+        for (User user : newUsers) {
+            users.put(user.getId(), user);
+        }
+        log.info("Пакетно создано пользователей: {}", newUsers.size());
+        return newUsers;
+    }
+
     @Override
     public User update(User newUser) {
         if (newUser.getId() == null) {
@@ -43,52 +72,35 @@ public class InMemoryUserStorage implements UserStorage {
             throw new ValidationException("ID пользователя должен быть указан");
         }
 
-        if (!users.containsKey(newUser.getId())) {
-            log.warn("Пользователь с id {} не найден", newUser.getId());
-            throw new NotFoundException("Пользователь с id " + newUser.getId() + " не найден");
-        }
-
-        User oldUser = users.get(newUser.getId());
-        log.debug("Текущие данные пользователя (ID: {}): {}", oldUser.getId(), oldUser);
-
-        boolean changed = false;
-
-        if (newUser.getName() != null && !newUser.getName().equals(oldUser.getName())) {
-            log.info("Изменение имени пользователя с ID {}: '{}' -> '{}'",
-                    oldUser.getId(), oldUser.getName(), newUser.getName());
-            oldUser.setName(newUser.getName());
-            changed = true;
-        }
+        return patch(newUser.getId(), UserPatch.of(newUser));
+    }
 
-        if (newUser.getEmail() != null && !newUser.getEmail().equals(oldUser.getEmail())) {
-            log.info("Изменение email пользователя с ID {}: '{}' -> '{}'",
-                    oldUser.getId(), oldUser.getEmail(), newUser.getEmail());
-            oldUser.setEmail(newUser.getEmail());
-            changed = true;
+    @Override
+    public User patch(Long id, UserPatch patch) {
+        User oldUser = users.get(id);
+        if (oldUser == null) {
+            log.warn("Пользователь с id {} не найден", id);
+            throw new NotFoundException("Пользователь с id " + id + " не найден");
         }
+        log.debug("Текущие данные пользователя (ID: {}): {}", oldUser.getId(), oldUser);
 
-        if (newUser.getLogin() != null && !newUser.getLogin().equals(oldUser.getLogin())) {
-            log.info("Изменение логина пользователя с ID {}: '{}' -> '{}'",
-                    oldUser.getId(), oldUser.getLogin(), newUser.getLogin());
-            oldUser.setLogin(newUser.getLogin());
-            changed = true;
+        synchronized (oldUser) {
+            UserFields.validatePatch(patch);
+            uniqueIndex.reserveChanges(oldUser, patch);
+            UserFields.applyPatch(oldUser, patch);
         }
 
-        if (newUser.getBirthday() != null && !newUser.getBirthday().equals(oldUser.getBirthday())) {
-            log.info("Изменение даты рождения пользователя с ID {}: {} -> {}",
-                    oldUser.getId(), oldUser.getBirthday(), newUser.getBirthday());
-            oldUser.setBirthday(newUser.getBirthday());
-            changed = true;
-        }
+        return oldUser;
+    }
 
-        if (changed) {
-            log.info("Пользователь с ID {} успешно обновлен", oldUser.getId());
-            log.debug("Обновленные данные пользователя (ID: {}): {}", oldUser.getId(), oldUser);
-        } else {
-            log.info("Данные пользователя с ID {} не изменились", oldUser.getId());
-        }
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return uniqueIndex.findIdByEmail(email).flatMap(this::findById);
+    }
 
-        return oldUser;
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return uniqueIndex.findIdByLogin(login).flatMap(this::findById);
     }
 
     @Override
@@ -96,14 +108,31 @@ public class InMemoryUserStorage implements UserStorage {
         return Optional.ofNullable(users.get(id));
     }
 
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        List<User> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User user = id == null ? null : users.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<User> delete(Long id) {
+        User removed = id == null ? null : users.remove(id);
+        if (removed != null) {
+            uniqueIndex.release(removed);
+            log.info("Пользователь '{}' (ID: {}) удалён", removed.getLogin(), removed.getId());
+        }
+        return Optional.ofNullable(removed);
+    }
+
     private long getNextId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        long nextId = ++currentMaxId;
+        long nextId = lastId.incrementAndGet();
         log.debug("Сгенерирован новый ID для пользователя: {}", nextId);
         return nextId;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,227 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapRecordStore;
+import ru.yandex.practicum.filmorate.storage.offheap.RecordCodec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@Profile("off-heap")
+@Slf4j
+public class OffHeapUserStorage implements UserStorage {
+    private final UserUniqueIndex uniqueIndex = new UserUniqueIndex();
+    private final OffHeapRecordStore records;
+    private final Map<Long, Set<Long>> friends = new HashMap<>();
+    private final Map<Long, Set<Long>> likedFilms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long lastId;
+
+    public OffHeapUserStorage(@Value("${filmorate.storage.off-heap.chunk-size:8388608}") int chunkSize) {
+        this.records = new OffHeapRecordStore(chunkSize);
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        lock.readLock().lock();
+        try {
+            long[] ids = records.ids();
+            List<User> result = new ArrayList<>(ids.length);
+            for (long id : ids) {
+                result.add(materialize(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public User create(User user) {
+        UserFields.fillDefaultName(user);
+        UserFields.prepareRelations(user);
+        byte[] record = RecordCodec.encodeUser(user);
+
+        lock.writeLock().lock();
+        try {
+            user.setId(lastId + 1);
+            uniqueIndex.reserve(user);
+            lastId++;
+            records.put(user.getId(), record);
+            friends.put(user.getId(), user.getFriendsId());
+            likedFilms.put(user.getId(), user.getLikedFilmId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Пользователь '{}' (ID: {}) успешно создан", user.getLogin(), user.getId());
+        log.debug("Полная информация о созданном пользователе: {}", user);
+
+        return user;
+    }
+
+    @Override
+    public User update(User newUser) {
+        if (newUser.getId() == null) {
+            log.error("Ошибка: ID пользователя должен быть указан");
+            throw new ValidationException("ID пользователя должен быть указан");
+        }
+
+        return patch(newUser.getId(), UserPatch.of(newUser));
+    }
+
+    /**
+     * Запись перекодируется целиком, только если изменились строки; дата рождения перезаписывается на месте.
+     */
+    @Override
+    public User patch(Long id, UserPatch patch) {
+        lock.writeLock().lock();
+        try {
+            if (id == null || !records.contains(id)) {
+                log.warn("Пользователь с id {} не найден", id);
+                throw new NotFoundException("Пользователь с id " + id + " не найден");
+            }
+
+            User oldUser = materialize(id);
+            log.debug("Текущие данные пользователя (ID: {}): {}", oldUser.getId(), oldUser);
+
+            UserFields.validatePatch(patch);
+            uniqueIndex.reserveChanges(oldUser, patch);
+            Set<UserPatch.Field> changed = UserFields.applyPatch(oldUser, patch);
+            if (changed.contains(UserPatch.Field.EMAIL) || changed.contains(UserPatch.Field.LOGIN)
+                    || changed.contains(UserPatch.Field.NAME)) {
+                records.put(id, RecordCodec.encodeUser(oldUser));
+            } else if (changed.contains(UserPatch.Field.BIRTHDAY)) {
+                records.putLong(id, RecordCodec.USER_BIRTHDAY, RecordCodec.epochDay(oldUser.getBirthday()));
+            }
+            return oldUser;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return uniqueIndex.findIdByEmail(email).flatMap(this::findById);
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return uniqueIndex.findIdByLogin(login).flatMap(this::findById);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        lock.readLock().lock();
+        try {
+            return id != null && records.contains(id) ? Optional.of(materialize(id)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        lock.readLock().lock();
+        try {
+            List<User> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                if (id != null && records.contains(id)) {
+                    result.add(materialize(id));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Long> findFriendIds(Long userId) {
+        lock.readLock().lock();
+        try {
+            Set<Long> friendIds = userId == null ? null : friends.get(userId);
+            return friendIds == null ? Set.of() : Collections.unmodifiableSet(friendIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void addLikedFilms(List<long[]> likes) {
+        lock.readLock().lock();
+        try {
+            for (long[] like : likes) {
+                Set<Long> filmIds = likedFilms.get(like[1]);
+                if (filmIds != null) {
+                    filmIds.add(like[0]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Дружба добавляется, только если оба пользователя на месте, чтобы не оставить связь в одну сторону.
+     */
+    @Override
+    public void addFriends(List<long[]> friendships) {
+        lock.readLock().lock();
+        try {
+            for (long[] friendship : friendships) {
+                Set<Long> userFriends = friends.get(friendship[0]);
+                Set<Long> friendFriends = friends.get(friendship[1]);
+                if (userFriends != null && friendFriends != null) {
+                    userFriends.add(friendship[1]);
+                    friendFriends.add(friendship[0]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> delete(Long id) {
+        User removed;
+        lock.writeLock().lock();
+        try {
+            if (id == null || !records.contains(id)) {
+                return Optional.empty();
+            }
+            removed = materialize(id);
+            records.remove(id);
+            friends.remove(id);
+            likedFilms.remove(id);
+            uniqueIndex.release(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Пользователь '{}' (ID: {}) удалён", removed.getLogin(), removed.getId());
+        return Optional.of(removed);
+    }
+
+    private User materialize(long id) {
+        User user = RecordCodec.decodeUser(id, records.get(id));
+        user.setFriendsId(friends.get(id));
+        user.setLikedFilmId(likedFilms.get(id));
+        return user;
+    }
+}
@@ -0,0 +1,354 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
+import ru.yandex.practicum.filmorate.storage.offheap.RecordCodec;
+import ru.yandex.practicum.filmorate.storage.tiered.CacheStats;
+import ru.yandex.practicum.filmorate.storage.tiered.ColdReads;
+import ru.yandex.practicum.filmorate.storage.tiered.SegmentFile;
+import ru.yandex.practicum.filmorate.storage.tiered.WTinyLfuCache;
+import ru.yandex.practicum.filmorate.util.LongLongHashMap;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Двухуровневое хранилище пользователей, устроено как TieredFilmStorage: друзья и лайки меняются
+ * только методами хранилища под его монитором, наружу отдаются копии только для чтения,
+ * холодные записи читаются с диска до входа в монитор.
+ */
+@Component
+@Profile("tiered")
+@Slf4j
+public class TieredUserStorage implements UserStorage {
+    private final UserUniqueIndex uniqueIndex = new UserUniqueIndex();
+    private final WTinyLfuCache<User> hot;
+    private final SegmentFile cold;
+    private final LongLongHashMap coldIndex = new LongLongHashMap();
+    private long lastId;
+
+    public TieredUserStorage(@Value("${filmorate.storage.tiered.max-hot-users:100000}") int maxHotUsers,
+                             @Value("${filmorate.storage.tiered.dir:${java.io.tmpdir}/filmorate}") Path directory) {
+        this.hot = new WTinyLfuCache<>(maxHotUsers, this::spill);
+        this.cold = new SegmentFile(directory.resolve("users.seg"));
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        ColdReads<User> reads = readColdOutsideLock(null);
+        synchronized (this) {
+            List<Long> ids = hot.keys();
+            for (long id : coldIndex.keys()) {
+                if (hot.peek(id) == null) {
+                    ids.add(id);
+                }
+            }
+            ids.sort(null);
+            List<User> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                User user = hot.peek(id);
+                result.add(UserFields.readOnlyCopy(user != null ? user : readCold(id, reads)));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public synchronized User create(User user) {
+        user.setId(lastId + 1);
+        UserFields.fillDefaultName(user);
+        UserFields.prepareRelations(user);
+        uniqueIndex.reserve(user);
+        lastId++;
+        // в кеше лежит собственная копия, не связанная с объектом вызывающего
+        User stored = UserFields.readOnlyCopy(user);
+        stored.setFriendsId(user.getFriendsId());
+        stored.setLikedFilmId(user.getLikedFilmId());
+        hot.put(stored.getId(), stored);
+
+        log.info("Пользователь '{}' (ID: {}) успешно создан", user.getLogin(), user.getId());
+        log.debug("Полная информация о созданном пользователе: {}", user);
+
+        return UserFields.readOnlyCopy(stored);
+    }
+
+    @Override
+    public User update(User newUser) {
+        if (newUser.getId() == null) {
+            log.error("Ошибка: ID пользователя должен быть указан");
+            throw new ValidationException("ID пользователя должен быть указан");
+        }
+
+        return patch(newUser.getId(), UserPatch.of(newUser));
+    }
+
+    @Override
+    public User patch(Long id, UserPatch patch) {
+        ColdReads<User> reads = readColdOutsideLock(singleton(id));
+        synchronized (this) {
+            User oldUser = id == null ? null : load(id, reads);
+            if (oldUser == null) {
+                log.warn("Пользователь с id {} не найден", id);
+                throw new NotFoundException("Пользователь с id " + id + " не найден");
+            }
+            log.debug("Текущие данные пользователя (ID: {}): {}", oldUser.getId(), oldUser);
+
+            UserFields.validatePatch(patch);
+            uniqueIndex.reserveChanges(oldUser, patch);
+            if (!UserFields.applyPatch(oldUser, patch).isEmpty()) {
+                dropColdCopy(id);
+            }
+
+            return UserFields.readOnlyCopy(oldUser);
+        }
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return uniqueIndex.findIdByEmail(email).flatMap(this::findById);
+    }
+
+    @Override
+    public Optional<User> findByLogin(String login) {
+        return uniqueIndex.findIdByLogin(login).flatMap(this::findById);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        ColdReads<User> reads = readColdOutsideLock(singleton(id));
+        synchronized (this) {
+            User user = id == null ? null : load(id, reads);
+            return user == null ? Optional.empty() : Optional.of(UserFields.readOnlyCopy(user));
+        }
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        ColdReads<User> reads = readColdOutsideLock(ids);
+        synchronized (this) {
+            List<User> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                User user = id == null ? null : load(id, reads);
+                if (user != null) {
+                    result.add(UserFields.readOnlyCopy(user));
+                }
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public Set<Long> findFriendIds(Long userId) {
+        ColdReads<User> reads = readColdOutsideLock(singleton(userId));
+        synchronized (this) {
+            User user = userId == null ? null : load(userId, reads);
+            return user == null ? Set.of() : Collections.unmodifiableSet(user.getFriendsId());
+        }
+    }
+
+    @Override
+    public void addLikedFilm(Long userId, Long filmId) {
+        ColdReads<User> reads = readColdOutsideLock(singleton(userId));
+        synchronized (this) {
+            mutate(userId, reads, user -> user.getLikedFilmId().add(filmId));
+        }
+    }
+
+    @Override
+    public void addLikedFilms(List<long[]> likes) {
+        List<Long> userIds = new ArrayList<>(likes.size());
+        likes.forEach(like -> userIds.add(like[1]));
+        ColdReads<User> reads = readColdOutsideLock(userIds);
+        synchronized (this) {
+            for (long[] like : likes) {
+                mutate(like[1], reads, user -> user.getLikedFilmId().add(like[0]));
+            }
+        }
+    }
+
+    @Override
+    public void removeLikedFilm(Long userId, Long filmId) {
+        ColdReads<User> reads = readColdOutsideLock(singleton(userId));
+        synchronized (this) {
+            mutate(userId, reads, user -> user.getLikedFilmId().remove(filmId));
+        }
+    }
+
+    /**
+     * Каждая сторона дружбы меняется сразу после загрузки: загрузка второго пользователя может
+     * вытеснить первого, и изменение должно попасть в кеш до этого.
+     */
+    @Override
+    public void addFriend(Long userId, Long friendId) {
+        ColdReads<User> reads = readColdOutsideLock(pair(userId, friendId));
+        synchronized (this) {
+            mutate(userId, reads, user -> user.getFriendsId().add(friendId));
+            mutate(friendId, reads, friend -> friend.getFriendsId().add(userId));
+        }
+    }
+
+    @Override
+    public void addFriends(List<long[]> friendships) {
+        List<Long> userIds = new ArrayList<>(friendships.size() * 2);
+        friendships.forEach(friendship -> userIds.addAll(pair(friendship[0], friendship[1])));
+        ColdReads<User> reads = readColdOutsideLock(userIds);
+        synchronized (this) {
+            for (long[] friendship : friendships) {
+                mutate(friendship[0], reads, user -> user.getFriendsId().add(friendship[1]));
+                mutate(friendship[1], reads, friend -> friend.getFriendsId().add(friendship[0]));
+            }
+        }
+    }
+
+    @Override
+    public void removeFriend(Long userId, Long friendId) {
+        ColdReads<User> reads = readColdOutsideLock(pair(userId, friendId));
+        synchronized (this) {
+            mutate(userId, reads, user -> user.getFriendsId().remove(friendId));
+            mutate(friendId, reads, friend -> friend.getFriendsId().remove(userId));
+        }
+    }
+
+    @Override
+    public void purgeFriendsOf(Long userId, Collection<Long> friendIds) {
+        ColdReads<User> reads = readColdOutsideLock(friendIds);
+        synchronized (this) {
+            friendIds.forEach(friendId -> mutate(friendId, reads, friend -> friend.getFriendsId().remove(userId)));
+        }
+    }
+
+    @Override
+    public void purgeLikedFilm(Long filmId, Collection<Long> userIds) {
+        ColdReads<User> reads = readColdOutsideLock(userIds);
+        synchronized (this) {
+            userIds.forEach(userId -> mutate(userId, reads, user -> user.getLikedFilmId().remove(filmId)));
+        }
+    }
+
+    /**
+     * Удаляет пользователя из кэша и индекса холодного сегмента, не поднимая его в кэш; запись
+     * в файле сегмента становится мёртвой.
+     */
+    @Override
+    public Optional<User> delete(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        ColdReads<User> reads = readColdOutsideLock(singleton(id));
+        synchronized (this) {
+            User removed = hot.remove(id);
+            if (removed == null && coldIndex.containsKey(id)) {
+                removed = readCold(id, reads);
+            }
+            dropColdCopy(id);
+            if (removed != null) {
+                uniqueIndex.release(removed);
+                log.info("Пользователь '{}' (ID: {}) удалён", removed.getLogin(), removed.getId());
+            }
+            return Optional.ofNullable(removed);
+        }
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hot.getHits(), hot.getMisses(), hot.getEvictions(), hot.size(), coldIndex.size(),
+                cold.size(), cold.garbageBytes());
+    }
+
+    public synchronized void compact() {
+        cold.compact(coldIndex);
+    }
+
+    @PreDestroy
+    public void close() {
+        cold.close();
+    }
+
+    private boolean mutate(Long id, ColdReads<User> reads, Predicate<User> change) {
+        User user = id == null ? null : load(id, reads);
+        if (user == null || !change.test(user)) {
+            return false;
+        }
+        dropColdCopy(id);
+        return true;
+    }
+
+    private ColdReads<User> readColdOutsideLock(Collection<Long> ids) {
+        ColdReads<User> reads;
+        synchronized (this) {
+            reads = new ColdReads<>(cold.generation());
+            if (ids == null) {
+                for (long id : coldIndex.keys()) {
+                    if (hot.peek(id) == null) {
+                        reads.plan(id, coldIndex.get(id, -1L));
+                    }
+                }
+            } else {
+                for (Long id : ids) {
+                    long offset = id == null || hot.peek(id) != null ? -1L : coldIndex.get(id, -1L);
+                    if (offset >= 0) {
+                        reads.plan(id, offset);
+                    }
+                }
+            }
+        }
+        reads.fetch(cold, RecordCodec::decodeUser);
+        return reads;
+    }
+
+    private User load(long id, ColdReads<User> reads) {
+        User user = hot.get(id);
+        if (user != null || !coldIndex.containsKey(id)) {
+            return user;
+        }
+        user = readCold(id, reads);
+        hot.put(id, user);
+        return user;
+    }
+
+    private User readCold(long id, ColdReads<User> reads) {
+        User user = reads.take(id, coldIndex, cold);
+        return user != null ? user : RecordCodec.decodeUser(id, cold.read(coldIndex.get(id, -1L)));
+    }
+
+    private static Collection<Long> singleton(Long id) {
+        return id == null ? List.of() : List.of(id);
+    }
+
+    private static Collection<Long> pair(Long first, Long second) {
+        List<Long> ids = new ArrayList<>(2);
+        ids.add(first);
+        ids.add(second);
+        return ids;
+    }
+
+    private void dropColdCopy(long id) {
+        long offset = coldIndex.get(id, -1L);
+        if (offset < 0) {
+            return;
+        }
+        coldIndex.remove(id);
+        cold.release(offset);
+        if (cold.needsCompaction()) {
+            cold.compact(coldIndex);
+        }
+    }
+
+    private void spill(Long id, User user) {
+        if (!coldIndex.containsKey(id)) {
+            coldIndex.put(id, cold.append(RecordCodec.encodeUser(user, true)));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+final class UserFields {
+    private UserFields() {
+    }
+
+    static void fillDefaultName(User user) {
+        if (user.getName() == null) {
+            log.info("Имя пользователя не указано, используется логин: {}", user.getLogin());
+            user.setName(user.getLogin());
+        }
+    }
+
+    static void prepareRelations(User user) {
+        user.setFriendsId(concurrentCopy(user.getFriendsId()));
+        user.setLikedFilmId(concurrentCopy(user.getLikedFilmId()));
+    }
+
+    /**
+     * Копия пользователя с друзьями и лайками только для чтения: изменения копии не попадают в хранилище.
+     */
+    static User readOnlyCopy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setLogin(user.getLogin());
+        copy.setName(user.getName());
+        copy.setBirthday(user.getBirthday());
+        copy.setFriendsId(Collections.unmodifiableSet(user.getFriendsId()));
+        copy.setLikedFilmId(Collections.unmodifiableSet(user.getLikedFilmId()));
+        return copy;
+    }
+
+    /**
+     * Отклоняет явный null в обязательных полях; вызывается до резервирования email и логина.
+     */
+    static void validatePatch(UserPatch patch) {
+        if (patch.has(UserPatch.Field.EMAIL) && patch.getEmail() == null) {
+            throw new ValidationException("Email не может быть пустым");
+        }
+        if (patch.has(UserPatch.Field.LOGIN) && patch.getLogin() == null) {
+            throw new ValidationException("Логин не может быть пустым");
+        }
+    }
+
+    /**
+     * Применяет только присутствующие в изменении поля и возвращает те, что действительно изменились.
+     * Явный null в name возвращает имя к логину.
+     */
+    static Set<UserPatch.Field> applyPatch(User oldUser, UserPatch patch) {
+        validatePatch(patch);
+        Set<UserPatch.Field> changed = EnumSet.noneOf(UserPatch.Field.class);
+
+        if (patch.has(UserPatch.Field.EMAIL) && !patch.getEmail().equals(oldUser.getEmail())) {
+            log.info("Изменение email пользователя с ID {}: '{}' -> '{}'",
+                    oldUser.getId(), oldUser.getEmail(), patch.getEmail());
+            oldUser.setEmail(patch.getEmail());
+            changed.add(UserPatch.Field.EMAIL);
+        }
+
+        if (patch.has(UserPatch.Field.LOGIN) && !patch.getLogin().equals(oldUser.getLogin())) {
+            log.info("Изменение логина пользователя с ID {}: '{}' -> '{}'",
+                    oldUser.getId(), oldUser.getLogin(), patch.getLogin());
+            oldUser.setLogin(patch.getLogin());
+            changed.add(UserPatch.Field.LOGIN);
+        }
+
+        if (patch.has(UserPatch.Field.NAME)) {
+            String name = patch.getName() == null ? oldUser.getLogin() : patch.getName();
+            if (!name.equals(oldUser.getName())) {
+                log.info("Изменение имени пользователя с ID {}: '{}' -> '{}'",
+                        oldUser.getId(), oldUser.getName(), name);
+                oldUser.setName(name);
+                changed.add(UserPatch.Field.NAME);
+            }
+        }
+
+        if (patch.has(UserPatch.Field.BIRTHDAY) && !Objects.equals(patch.getBirthday(), oldUser.getBirthday())) {
+            log.info("Изменение даты рождения пользователя с ID {}: {} -> {}",
+                    oldUser.getId(), oldUser.getBirthday(), patch.getBirthday());
+            oldUser.setBirthday(patch.getBirthday());
+            changed.add(UserPatch.Field.BIRTHDAY);
+        }
+
+        if (!changed.isEmpty()) {
+            log.info("Пользователь с ID {} успешно обновлен, изменены поля: {}", oldUser.getId(), changed);
+            log.debug("Обновленные данные пользователя (ID: {}): {}", oldUser.getId(), oldUser);
+        } else {
+            log.info("Данные пользователя с ID {} не изменились", oldUser.getId());
+        }
+
+        return changed;
+    }
+
+    private static Set<Long> concurrentCopy(Set<Long> ids) {
+        Set<Long> copy = ConcurrentHashMap.newKeySet();
+        if (ids != null) {
+            copy.addAll(ids);
+        }
+        return copy;
+    }
+}
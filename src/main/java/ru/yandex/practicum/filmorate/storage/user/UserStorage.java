@@ -1,16 +1,118 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public interface UserStorage {
     public Optional<User> findById(Long id);
 
     public User update(User newUser);
 
+    /**
+     * Применяет к пользователю только присутствующие в изменении поля, не перезаписывая остальные.
+     */
+    public User patch(Long id, UserPatch patch);
+
     public Collection<User> findAll();
 
     public User create(User user);
+
+    public Optional<User> findByEmail(String email);
+
+    public Optional<User> findByLogin(String login);
+
+    /**
+     * Удаляет пользователя и возвращает его вместе с друзьями и лайками; обратные ссылки
+     * у друзей и фильмов вычищаются отдельно через purge-методы хранилищ.
+     */
+    public Optional<User> delete(Long id);
+
+    /**
+     * Пользователи с перечисленными id в порядке запроса; отсутствующие id пропускаются.
+     */
+    public default List<User> findAllById(Collection<Long> ids) {
+        return ids.stream()
+                .map(this::findById)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Id друзей пользователя без чтения самого пользователя; для неизвестного id — пустое множество.
+     */
+    public default Set<Long> findFriendIds(Long userId) {
+        return findById(userId).map(User::getFriendsId).orElse(Set.of());
+    }
+
+    public default int countFriends(Long userId) {
+        return findFriendIds(userId).size();
+    }
+
+    public default List<User> createAll(List<User> users) {
+        return users.stream()
+                .map(this::create)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Отмечает лайк в множестве фильмов пользователя; сам лайк хранит FilmStorage.
+     */
+    public default void addLikedFilm(Long userId, Long filmId) {
+        findById(userId).ifPresent(user -> user.getLikedFilmId().add(filmId));
+    }
+
+    /**
+     * Пакетная отметка лайков {filmId, userId} в множествах фильмов пользователей.
+     */
+    public default void addLikedFilms(List<long[]> likes) {
+        likes.forEach(like -> addLikedFilm(like[1], like[0]));
+    }
+
+    public default void removeLikedFilm(Long userId, Long filmId) {
+        findById(userId).ifPresent(user -> user.getLikedFilmId().remove(filmId));
+    }
+
+    public default void addFriend(Long userId, Long friendId) {
+        findById(userId).ifPresent(user -> user.getFriendsId().add(friendId));
+        findById(friendId).ifPresent(friend -> friend.getFriendsId().add(userId));
+    }
+
+    /**
+     * Пакетное добавление дружб {userId, friendId} для импорта.
+     */
+    public default void addFriends(List<long[]> friendships) {
+        friendships.forEach(friendship -> addFriend(friendship[0], friendship[1]));
+    }
+
+    public default void removeFriend(Long userId, Long friendId) {
+        findById(userId).ifPresent(user -> user.getFriendsId().remove(friendId));
+        findById(friendId).ifPresent(friend -> friend.getFriendsId().remove(userId));
+    }
+
+    /**
+     * Убирает удалённого пользователя из списков друзей перечисленных пользователей.
+     */
+    public default void purgeFriendsOf(Long userId, Collection<Long> friendIds) {
+        friendIds.forEach(friendId -> findById(friendId).ifPresent(friend -> friend.getFriendsId().remove(userId)));
+    }
+
+    /**
+     * Убирает удалённый фильм из лайков перечисленных пользователей.
+     */
+    public default void purgeLikedFilm(Long filmId, Collection<Long> userIds) {
+        userIds.forEach(userId -> findById(userId).ifPresent(user -> user.getLikedFilmId().remove(filmId)));
+    }
+
+    public default List<User> findCommonFriends(Long userId, Long otherId) {
+        Set<Long> otherFriends = findById(otherId).map(User::getFriendsId).orElse(Set.of());
+        return findAllById(findById(userId).map(User::getFriendsId).orElse(Set.of()).stream()
+                .filter(otherFriends::contains)
+                .collect(Collectors.toList()));
+    }
 }
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Уникальные индексы по нормализованным email и логину. Резервирование ключа — одна операция
+ * {@link ConcurrentHashMap#putIfAbsent}, поэтому дубликат отклоняется до изменения пользователя.
+ */
+class UserUniqueIndex {
+    private final Map<String, Long> emails = new ConcurrentHashMap<>();
+    private final Map<String, Long> logins = new ConcurrentHashMap<>();
+
+    void reserve(User user) {
+        String email = normalize(user.getEmail());
+        String login = normalize(user.getLogin());
+        reserveEmail(email, user.getId());
+        try {
+            reserveLogin(login, user.getId());
+        } catch (AlreadyExistsException e) {
+            release(emails, email, user.getId());
+            throw e;
+        }
+    }
+
+    void reserveChanges(User oldUser, UserPatch patch) {
+        String oldEmail = normalize(oldUser.getEmail());
+        String oldLogin = normalize(oldUser.getLogin());
+        String newEmail = patch.has(UserPatch.Field.EMAIL) ? normalize(patch.getEmail()) : oldEmail;
+        String newLogin = patch.has(UserPatch.Field.LOGIN) ? normalize(patch.getLogin()) : oldLogin;
+        boolean emailChanged = !newEmail.equals(oldEmail);
+        boolean loginChanged = !newLogin.equals(oldLogin);
+
+        if (emailChanged) {
+            reserveEmail(newEmail, oldUser.getId());
+        }
+        if (loginChanged) {
+            try {
+                reserveLogin(newLogin, oldUser.getId());
+            } catch (AlreadyExistsException e) {
+                if (emailChanged) {
+                    release(emails, newEmail, oldUser.getId());
+                }
+                throw e;
+            }
+        }
+        if (emailChanged) {
+            release(emails, oldEmail, oldUser.getId());
+        }
+        if (loginChanged) {
+            release(logins, oldLogin, oldUser.getId());
+        }
+    }
+
+    void release(User user) {
+        release(emails, normalize(user.getEmail()), user.getId());
+        release(logins, normalize(user.getLogin()), user.getId());
+    }
+
+    Optional<Long> findIdByEmail(String email) {
+        return email == null ? Optional.empty() : Optional.ofNullable(emails.get(normalize(email)));
+    }
+
+    Optional<Long> findIdByLogin(String login) {
+        return login == null ? Optional.empty() : Optional.ofNullable(logins.get(normalize(login)));
+    }
+
+    private void reserveEmail(String email, Long userId) {
+        if (email.isEmpty()) {
+            return;
+        }
+        Long existing = emails.putIfAbsent(email, userId);
+        if (existing != null && !existing.equals(userId)) {
+            throw new AlreadyExistsException("Пользователь с email " + email + " уже существует");
+        }
+    }
+
+    private void reserveLogin(String login, Long userId) {
+        if (login.isEmpty()) {
+            return;
+        }
+        Long existing = logins.putIfAbsent(login, userId);
+        if (existing != null && !existing.equals(userId)) {
+            throw new AlreadyExistsException("Пользователь с логином " + login + " уже существует");
+        }
+    }
+
+    private static void release(Map<String, Long> index, String key, Long userId) {
+        index.remove(key, userId);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
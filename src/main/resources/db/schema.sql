@@ -0,0 +1,40 @@
+CREATE TABLE IF NOT EXISTS films (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(200),
+    release_date DATE,
+    duration_seconds BIGINT,
+    duration_nanos INT,
+    likes_count INT DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS films_popularity_idx ON films (likes_count DESC, id);
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(255),
+    login VARCHAR(255),
+    name VARCHAR(255),
+    birthday DATE,
+    email_key VARCHAR(255) GENERATED ALWAYS AS (NULLIF(LOWER(TRIM(email)), '')),
+    login_key VARCHAR(255) GENERATED ALWAYS AS (NULLIF(LOWER(TRIM(login)), ''))
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_uq ON users (email_key);
+CREATE UNIQUE INDEX IF NOT EXISTS users_login_uq ON users (login_key);
+
+CREATE TABLE IF NOT EXISTS likes (
+    film_id BIGINT NOT NULL REFERENCES films (id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    PRIMARY KEY (film_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS likes_user_idx ON likes (user_id, film_id);
+
+CREATE TABLE IF NOT EXISTS friends (
+    user_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    friend_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    PRIMARY KEY (user_id, friend_id)
+);
+
+CREATE INDEX IF NOT EXISTS friends_friend_idx ON friends (friend_id, user_id);
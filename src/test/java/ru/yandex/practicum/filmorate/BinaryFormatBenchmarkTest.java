@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение JSON, CBOR и Smile на списках фильмов и пользователей из {@link SyntheticDataset}:
+ * размер ответа и медианное время кодирования и декодирования всего списка.
+ * Мапперы строятся тем же билдером Spring Boot, что и в BinaryFormatConfig.
+ * По умолчанию не запускается: mvn test -P benchmark. Размер списка задаётся свойством
+ * filmorate.benchmark.size, число замеров — filmorate.benchmark.iterations.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Slf4j
+class BinaryFormatBenchmarkTest {
+    private static final long SEED = 42;
+    private static final int WARMUP_ITERATIONS = 20;
+
+    @Autowired
+    private ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    @Test
+    void filmAndUserLists_ShouldBeSmallerInBinaryFormats() throws IOException {
+        int size = Integer.getInteger("filmorate.benchmark.size", 10_000);
+        int iterations = Integer.getInteger("filmorate.benchmark.iterations", 30);
+        SyntheticDataset dataset = SyntheticDataset.generate(SEED, size, size, 10, 10);
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        dataset.loadInto(filmStorage, userStorage);
+        List<Film> films = new ArrayList<>(filmStorage.findAll());
+        List<User> users = new ArrayList<>(userStorage.findAll());
+
+        ObjectMapper json = builders.getObject().build();
+        ObjectMapper cbor = builders.getObject().factory(new CBORFactory()).build();
+        ObjectMapper smile = builders.getObject().factory(new SmileFactory()).build();
+
+        for (String entity : List.of("films", "users")) {
+            List<?> values = entity.equals("films") ? films : users;
+            TypeReference<?> type = entity.equals("films")
+                    ? new TypeReference<List<Film>>() {
+                    }
+                    : new TypeReference<List<User>>() {
+                    };
+            Result jsonResult = measure(json, values, type, iterations);
+            Result cborResult = measure(cbor, values, type, iterations);
+            Result smileResult = measure(smile, values, type, iterations);
+            log.info("{} x{}: JSON {}; CBOR {}; Smile {}", entity, values.size(), jsonResult, cborResult, smileResult);
+
+            assertAll(
+                    () -> assertTrue(cborResult.bytes < jsonResult.bytes, entity + ": CBOR " + cborResult
+                            + " не меньше JSON " + jsonResult),
+                    () -> assertTrue(smileResult.bytes < jsonResult.bytes, entity + ": Smile " + smileResult
+                            + " не меньше JSON " + jsonResult)
+            );
+        }
+    }
+
+    /**
+     * Декодированный список сравнивается с исходным, чтобы замер не шёл по сломанной сериализации.
+     */
+    private static Result measure(ObjectMapper mapper, List<?> values, TypeReference<?> type, int iterations)
+            throws IOException {
+        byte[] payload = mapper.writeValueAsBytes(values);
+        assertEquals(values, mapper.readValue(payload, type));
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(values), type);
+        }
+        long[] encode = new long[iterations];
+        long[] decode = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            payload = mapper.writeValueAsBytes(values);
+            long encoded = System.nanoTime();
+            mapper.readValue(payload, type);
+            encode[i] = encoded - start;
+            decode[i] = System.nanoTime() - encoded;
+        }
+        return new Result(payload.length, median(encode), median(decode));
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private record Result(int bytes, long encodeNanos, long decodeNanos) {
+        @Override
+        public String toString() {
+            return String.format("%d Б, кодирование %.2f мс, декодирование %.2f мс",
+                    bytes, encodeNanos / 1e6, decodeNanos / 1e6);
+        }
+    }
+}
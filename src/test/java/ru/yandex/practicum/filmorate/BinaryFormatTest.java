@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryFormatTest {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Test
+    void getFilms_WithCborAccept_ShouldReturnCborWithDurationInMinutes() throws Exception {
+        Film film = filmService.add(createValidFilm());
+
+        MvcResult result = mockMvc.perform(get("/films").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        ObjectMapper cbor = new CBORMapper().registerModule(new JavaTimeModule());
+        List<Film> films = cbor.readValue(result.getResponse().getContentAsByteArray(), new TypeReference<>() {
+        });
+        assertTrue(films.contains(film));
+        assertEquals(120, cbor.readTree(result.getResponse().getContentAsByteArray())
+                .findValue("duration").asInt());
+    }
+
+    @Test
+    void postFilm_WithSmileBody_ShouldBeAcceptedAndAnsweredInSmile() throws Exception {
+        ObjectMapper smile = new SmileMapper().registerModule(new JavaTimeModule());
+        byte[] body = smile.writeValueAsBytes(createValidFilm());
+
+        MvcResult result = mockMvc.perform(post("/films").contentType(SMILE).accept(SMILE).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn();
+
+        Film created = smile.readValue(result.getResponse().getContentAsByteArray(), Film.class);
+        assertNotNull(created.getId());
+        assertEquals(Duration.ofMinutes(120), created.getDuration());
+        assertEquals(LocalDate.of(2000, 1, 1), created.getReleaseDate());
+    }
+
+    @Test
+    void getFilms_WithoutAccept_ShouldStayJson() throws Exception {
+        mockMvc.perform(get("/films"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    private Film createValidFilm() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+}
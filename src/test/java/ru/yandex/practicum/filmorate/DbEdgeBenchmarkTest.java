@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение записи лайков по одному и пакетами JDBC в H2 с тем же путём в памяти на одном
+ * синтетическом наборе: первая половина лайков пишется по одному, вторая — пакетами, как при импорте.
+ * По умолчанию не запускается: mvn test -P benchmark. Размер набора задаётся свойством
+ * filmorate.benchmark.size.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:filmorate-edge-benchmark;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("db")
+@Slf4j
+class DbEdgeBenchmarkTest {
+    private static final long SEED = 42;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void likeBatches_ShouldBeFasterThanSingleLikesInDb() {
+        int size = Integer.getInteger("filmorate.benchmark.size", 20_000);
+        SyntheticDataset dataset = SyntheticDataset.generate(SEED, size, size, 4, 0);
+
+        Result db = measure(dataset, filmStorage, userStorage);
+        Result inMemory = measure(dataset, new InMemoryFilmStorage(), new InMemoryUserStorage());
+        log.info("{} лайков: H2 {}; в памяти {}", dataset.likeCount(), db, inMemory);
+
+        assertTrue(db.batchedPerSecond > db.singlePerSecond, "H2 " + db);
+    }
+
+    private static Result measure(SyntheticDataset dataset, FilmStorage films, UserStorage users) {
+        dataset.loadFilms(films);
+        dataset.loadUsers(users);
+        int[] edges = dataset.likeEdges();
+        int half = edges.length / 4 * 2;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < half; i += 2) {
+            long filmId = dataset.filmId(edges[i]);
+            long userId = dataset.userId(edges[i + 1]);
+            if (films.addLike(filmId, userId)) {
+                users.addLikedFilm(userId, filmId);
+            }
+        }
+        long single = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int added = 0;
+        for (int from = half; from < edges.length; from += 2 * BATCH_SIZE) {
+            List<long[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = from; i < Math.min(edges.length, from + 2 * BATCH_SIZE); i += 2) {
+                batch.add(new long[]{dataset.filmId(edges[i]), dataset.userId(edges[i + 1])});
+            }
+            boolean[] inserted = films.addLikes(batch);
+            List<long[]> liked = new ArrayList<>(batch.size());
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i]) {
+                    liked.add(batch.get(i));
+                }
+            }
+            users.addLikedFilms(liked);
+            added += liked.size();
+        }
+        long batched = System.nanoTime() - start;
+
+        assertEquals((edges.length - half) / 2, added);
+        return new Result(half / 2 * 1e9 / single, (edges.length - half) / 2 * 1e9 / batched);
+    }
+
+    private record Result(double singlePerSecond, double batchedPerSecond) {
+        @Override
+        public String toString() {
+            return String.format("по одному %.0f лайков/с, пакетами %.0f лайков/с", singlePerSecond, batchedPerSecond);
+        }
+    }
+}
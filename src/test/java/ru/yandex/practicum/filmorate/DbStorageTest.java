@@ -0,0 +1,261 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
+import ru.yandex.practicum.filmorate.storage.film.DbFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.DbUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:filmorate-test;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("db")
+class DbStorageTest {
+    private static final AtomicInteger userNumber = new AtomicInteger();
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void storages_ShouldBeDatabaseBacked() {
+        assertInstanceOf(DbFilmStorage.class, filmStorage);
+        assertInstanceOf(DbUserStorage.class, userStorage);
+    }
+
+    @Test
+    void addFilm_ShouldReadBackSameFields() {
+        Film film = filmStorage.add(createValidFilm());
+
+        Film result = filmStorage.findById(film.getId()).orElseThrow();
+
+        assertEquals(film, result);
+        assertEquals(Duration.ofMinutes(120).plusMillis(5), result.getDuration());
+    }
+
+    @Test
+    void addLike_ShouldBeIdempotentAndRaiseFilmInPopular() {
+        Film film = filmStorage.add(createValidFilm());
+        User first = userStorage.create(createValidUser());
+        User second = userStorage.create(createValidUser());
+
+        assertTrue(filmStorage.addLike(film.getId(), first.getId()));
+        assertTrue(filmStorage.addLike(film.getId(), second.getId()));
+        assertFalse(filmStorage.addLike(film.getId(), second.getId()));
+
+        Film top = filmStorage.findPopular(1).get(0);
+        assertEquals(film.getId(), top.getId());
+        assertEquals(Set.of(first.getId(), second.getId()), top.getLikes());
+        assertEquals(Set.of(film.getId()), userStorage.findById(first.getId()).orElseThrow().getLikedFilmId());
+
+        assertTrue(filmStorage.removeLike(film.getId(), first.getId()));
+        assertFalse(filmStorage.removeLike(film.getId(), first.getId()));
+        assertEquals(Set.of(second.getId()), filmStorage.findById(film.getId()).orElseThrow().getLikes());
+    }
+
+    @Test
+    void edgeBatches_ShouldSkipDuplicatesAndMissingEntitiesAndCountLikesOnce() {
+        Film film = filmStorage.add(createValidFilm());
+        User first = userStorage.create(createValidUser());
+        User second = userStorage.create(createValidUser());
+        filmStorage.addLike(film.getId(), first.getId());
+
+        boolean[] added = filmStorage.addLikes(List.of(new long[]{film.getId(), first.getId()},
+                new long[]{film.getId(), second.getId()}, new long[]{film.getId(), second.getId()},
+                new long[]{-1, second.getId()}, new long[]{film.getId(), -1}));
+        userStorage.addFriends(List.of(new long[]{first.getId(), second.getId()}, new long[]{first.getId(), -1}));
+
+        assertArrayEquals(new boolean[]{false, true, false, false, false}, added);
+        assertEquals(2, likesCount(film.getId()));
+        assertEquals(Set.of(first.getId(), second.getId()),
+                filmStorage.findById(film.getId()).orElseThrow().getLikes());
+        assertEquals(Set.of(second.getId()), userStorage.findFriendIds(first.getId()));
+        assertEquals(Set.of(first.getId()), userStorage.findFriendIds(second.getId()));
+        assertTrue(filmStorage.delete(film.getId()).isPresent());
+    }
+
+    @Test
+    void findCommonFriends_ShouldReturnOnlySharedFriends() {
+        User user = userStorage.create(createValidUser());
+        User other = userStorage.create(createValidUser());
+        User common = userStorage.create(createValidUser());
+        User onlyUsers = userStorage.create(createValidUser());
+        userStorage.addFriend(user.getId(), common.getId());
+        userStorage.addFriend(user.getId(), onlyUsers.getId());
+        userStorage.addFriend(other.getId(), common.getId());
+
+        List<User> result = userStorage.findCommonFriends(user.getId(), other.getId());
+
+        assertEquals(List.of(common.getId()), result.stream().map(User::getId).collect(Collectors.toList()));
+        assertEquals(Set.of(user.getId(), other.getId()), result.get(0).getFriendsId());
+        assertEquals(Set.of(common.getId(), onlyUsers.getId()), userStorage.findFriendIds(user.getId()));
+        assertEquals(2, userStorage.countFriends(user.getId()));
+
+        userStorage.removeFriend(common.getId(), user.getId());
+        assertFalse(userStorage.findById(user.getId()).orElseThrow().getFriendsId().contains(common.getId()));
+    }
+
+    @Test
+    void create_WithDuplicateEmailInOtherCase_ShouldThrowAlreadyExists() {
+        User user = userStorage.create(createValidUser());
+        User duplicate = createValidUser();
+        duplicate.setEmail(" " + user.getEmail().toUpperCase() + " ");
+
+        assertThrows(AlreadyExistsException.class, () -> userStorage.create(duplicate));
+        assertEquals(user.getId(), userStorage.findByEmail(user.getEmail().toUpperCase()).orElseThrow().getId());
+    }
+
+    @Test
+    void createAll_WithDuplicate_ShouldRollBackWholeBatch() {
+        User existing = userStorage.create(createValidUser());
+        User fresh = createValidUser();
+        User duplicate = createValidUser();
+        duplicate.setLogin(existing.getLogin());
+
+        assertThrows(AlreadyExistsException.class, () -> userStorage.createAll(List.of(fresh, duplicate)));
+        assertTrue(userStorage.findByLogin(fresh.getLogin()).isEmpty());
+    }
+
+    @Test
+    void delete_ShouldCascadeEdgesAndKeepLikesCount() {
+        Film film = filmStorage.add(createValidFilm());
+        Film other = filmStorage.add(createValidFilm());
+        User user = userStorage.create(createValidUser());
+        User friend = userStorage.create(createValidUser());
+        userStorage.addFriend(user.getId(), friend.getId());
+        filmStorage.addLike(film.getId(), user.getId());
+        filmStorage.addLike(film.getId(), friend.getId());
+        filmStorage.addLike(other.getId(), user.getId());
+
+        assertEquals(Set.of(film.getId(), other.getId()),
+                userStorage.delete(user.getId()).orElseThrow().getLikedFilmId());
+
+        assertTrue(userStorage.findById(user.getId()).isEmpty());
+        assertTrue(userStorage.delete(user.getId()).isEmpty());
+        assertEquals(Set.of(), userStorage.findById(friend.getId()).orElseThrow().getFriendsId());
+        assertEquals(Set.of(friend.getId()), filmStorage.findById(film.getId()).orElseThrow().getLikes());
+        assertEquals(1, likesCount(film.getId()));
+        assertEquals(0, likesCount(other.getId()));
+
+        assertTrue(filmStorage.delete(film.getId()).isPresent());
+        assertTrue(filmStorage.findById(film.getId()).isEmpty());
+        assertEquals(Set.of(), userStorage.findById(friend.getId()).orElseThrow().getLikedFilmId());
+    }
+
+    @Test
+    void findAllById_ShouldKeepRequestedOrderWithRelations() {
+        Film first = filmStorage.add(createValidFilm());
+        Film second = filmStorage.add(createValidFilm());
+        User user = userStorage.create(createValidUser());
+        User friend = userStorage.create(createValidUser());
+        userStorage.addFriend(user.getId(), friend.getId());
+        filmStorage.addLike(second.getId(), user.getId());
+
+        List<Film> films = filmStorage.findAllById(List.of(second.getId(), -1L, first.getId()));
+        List<User> users = userStorage.findAllById(List.of(friend.getId(), user.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId()), films.stream().map(Film::getId).toList());
+        assertEquals(Set.of(user.getId()), films.get(0).getLikes());
+        assertEquals(List.of(friend.getId(), user.getId()), users.stream().map(User::getId).toList());
+        assertEquals(Set.of(user.getId()), users.get(0).getFriendsId());
+        assertEquals(Set.of(second.getId()), users.get(1).getLikedFilmId());
+        assertTrue(filmStorage.findAllById(List.of()).isEmpty());
+    }
+
+    @Test
+    void patch_ShouldUpdateOnlyPresentColumns() {
+        Film film = filmStorage.add(createValidFilm());
+        User user = userStorage.create(createValidUser());
+        FilmPatch filmPatch = new FilmPatch();
+        filmPatch.setDescription("Patched");
+        UserPatch userPatch = new UserPatch();
+        userPatch.setBirthday(null);
+        userPatch.setName(null);
+
+        filmStorage.patch(film.getId(), filmPatch);
+        userStorage.patch(user.getId(), userPatch);
+
+        Film patchedFilm = filmStorage.findById(film.getId()).orElseThrow();
+        assertEquals("Patched", patchedFilm.getDescription());
+        assertEquals(film.getDuration(), patchedFilm.getDuration());
+        User patchedUser = userStorage.findById(user.getId()).orElseThrow();
+        assertNull(patchedUser.getBirthday());
+        assertEquals(user.getLogin(), patchedUser.getName());
+    }
+
+    @Test
+    void addLike_RacingForSameLike_ShouldSucceedOnceAndCountOnce() throws Exception {
+        Film film = filmStorage.add(createValidFilm());
+        User user = userStorage.create(createValidUser());
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return filmStorage.addLike(film.getId(), user.getId());
+                }));
+            }
+            start.countDown();
+            int added = 0;
+            for (Future<Boolean> result : results) {
+                added += result.get() ? 1 : 0;
+            }
+            assertEquals(1, added);
+            assertEquals(1, likesCount(film.getId()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int likesCount(long filmId) {
+        return jdbc.queryForObject("SELECT likes_count FROM films WHERE id = ?", Integer.class, filmId);
+    }
+
+    private Film createValidFilm() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120).plusMillis(5));
+        return film;
+    }
+
+    private User createValidUser() {
+        int number = userNumber.incrementAndGet();
+        User user = new User();
+        user.setEmail("db" + number + "@example.com");
+        user.setLogin("db" + number);
+        user.setName("User Name");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,252 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.FeedEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DeletionService;
+import ru.yandex.practicum.filmorate.service.FeedService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.Tombstones;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "filmorate.cleanup.batch-size=2")
+@AutoConfigureMockMvc
+class DeletionTest {
+    private static final AtomicInteger userNumber = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private DeletionService deletionService;
+
+    @Autowired
+    private Tombstones tombstones;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void deleteFilm_ShouldRemoveFilmAndItsLikesFromUsers() throws Exception {
+        Film film = filmService.add(createValidFilm(1931));
+        List<User> likers = List.of(createUser(), createUser(), createUser(), createUser(), createUser());
+        for (User liker : likers) {
+            filmService.addLike(film.getId(), liker.getId());
+        }
+
+        mockMvc.perform(delete("/films/" + film.getId())).andExpect(status().isOk());
+
+        assertTrue(filmStorage.findById(film.getId()).isEmpty());
+        assertTrue(filmService.getPopularFilms(10, 1931).isEmpty());
+        mockMvc.perform(delete("/films/" + film.getId())).andExpect(status().isNotFound());
+        awaitCleanup();
+        for (User liker : likers) {
+            assertTrue(userStorage.findById(liker.getId()).orElseThrow().getLikedFilmId().isEmpty());
+        }
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveFriendshipsAndLikes() throws Exception {
+        User user = createUser();
+        User friend = createUser();
+        User other = createUser();
+        Film film = filmService.add(createValidFilm(1932));
+        Film runnerUp = filmService.add(createValidFilm(1932));
+        userService.addFriends(user.getId(), friend.getId());
+        userService.addFriends(user.getId(), other.getId());
+        filmService.addLike(film.getId(), user.getId());
+        filmService.addLike(film.getId(), friend.getId());
+        filmService.addLike(runnerUp.getId(), friend.getId());
+        filmService.addLike(runnerUp.getId(), other.getId());
+
+        mockMvc.perform(delete("/users/" + user.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/" + user.getId() + "/friends")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/" + friend.getId() + "/friends")).andExpect(status().isOk());
+        assertTrue(userStorage.findByEmail(user.getEmail()).isEmpty());
+        awaitCleanup();
+        assertEquals(Set.of(), userStorage.findById(friend.getId()).orElseThrow().getFriendsId());
+        assertEquals(Set.of(friend.getId()), filmStorage.findById(film.getId()).orElseThrow().getLikes());
+        assertEquals(List.of(runnerUp.getId(), film.getId()), filmService.getPopularFilms(2, 1932).stream()
+                .map(Film::getId)
+                .toList());
+        assertFalse(tombstones.isUserDeleted(user.getId()));
+    }
+
+    @Test
+    void serialization_ShouldHideTombstonedIdsUntilPruned() throws Exception {
+        User stale = new User();
+        stale.setFriendsId(Set.of(-1L, -2L));
+        stale.setLikedFilmId(Set.of(-3L));
+        tombstones.markUserDeleted(-1L);
+        tombstones.markFilmDeleted(-3L);
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(stale));
+        assertEquals(1, json.get("friendsId").size());
+        assertEquals(-2L, json.get("friendsId").get(0).asLong());
+        assertTrue(json.get("likedFilmId").isEmpty());
+
+        tombstones.pruneUsers(List.of(-1L));
+        tombstones.pruneFilms(List.of(-3L));
+        json = objectMapper.readTree(objectMapper.writeValueAsString(stale));
+        assertEquals(2, json.get("friendsId").size());
+        assertEquals(1, json.get("likedFilmId").size());
+    }
+
+    @Test
+    void getFeed_ShouldSkipEventsOfDeletedUsersAndFilms() throws Exception {
+        User reader = createUser();
+        User friend = createUser();
+        User leaving = createUser();
+        Film film = filmService.add(createValidFilm(1934));
+        Film kept = filmService.add(createValidFilm(1934));
+        userService.addFriends(reader.getId(), friend.getId());
+        userService.addFriends(reader.getId(), leaving.getId());
+        filmService.addLike(film.getId(), friend.getId());
+        filmService.addLike(kept.getId(), friend.getId());
+        filmService.addLike(kept.getId(), leaving.getId());
+
+        filmService.delete(film.getId());
+        userService.delete(leaving.getId());
+
+        List<FeedEvent> feed = feedService.getFeed(reader.getId(), 20, null);
+        assertEquals(1, feed.size());
+        assertEquals(friend.getId(), feed.get(0).getUserId());
+        assertEquals(kept.getId(), feed.get(0).getEntityId());
+        awaitCleanup();
+        assertFalse(tombstones.isFilmDeleted(film.getId()));
+        assertEquals(feed, feedService.getFeed(reader.getId(), 20, null));
+    }
+
+    @Test
+    void pruneTombstones_ShouldWaitForWritesStartedBeforeDeletion() throws Exception {
+        User user = createUser();
+        Film film = filmService.add(createValidFilm(1935));
+        int write = tombstones.beginWrite();
+        try {
+            userService.delete(user.getId());
+            Thread.sleep(200);
+            assertFalse(deletionService.isCleanupIdle());
+            // запоздавшая запись после снимка очистки ещё видит запись в Tombstones и откатится
+            assertTrue(filmStorage.addLike(film.getId(), user.getId()));
+            assertTrue(tombstones.isUserDeleted(user.getId()));
+            assertTrue(filmStorage.removeLike(film.getId(), user.getId()));
+        } finally {
+            tombstones.endWrite(write);
+        }
+        awaitCleanup();
+        assertFalse(tombstones.isUserDeleted(user.getId()));
+    }
+
+    @Test
+    void addLikeAndFriends_RacingWithUserDeletion_ShouldNotLeaveDanglingEdges() throws Exception {
+        User anchor = createUser();
+        Film film = filmService.add(createValidFilm(1936));
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(createUser());
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (User user : users) {
+            workers.add(new Thread(() -> {
+                awaitQuietly(start);
+                try {
+                    filmService.addLike(film.getId(), user.getId());
+                    userService.addFriends(anchor.getId(), user.getId());
+                } catch (NotFoundException ignored) {
+                    // пользователь уже удалён
+                }
+            }));
+            workers.add(new Thread(() -> {
+                awaitQuietly(start);
+                userService.delete(user.getId());
+            }));
+        }
+        workers.forEach(Thread::start);
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        awaitCleanup();
+
+        assertEquals(Set.of(), filmStorage.findById(film.getId()).orElseThrow().getLikes());
+        assertEquals(Set.of(), userStorage.findById(anchor.getId()).orElseThrow().getFriendsId());
+        assertEquals(List.of(film.getId()), filmService.getPopularFilms(1, 1936).stream()
+                .map(Film::getId)
+                .toList());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitCleanup() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!deletionService.isCleanupIdle()) {
+            assertTrue(System.nanoTime() < deadline, "Фоновая очистка не завершилась");
+            Thread.sleep(10);
+        }
+    }
+
+    private User createUser() {
+        int number = userNumber.incrementAndGet();
+        User user = new User();
+        user.setEmail("deleted" + number + "@example.com");
+        user.setLogin("deleted" + number);
+        user.setName("User Name");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return userStorage.create(user);
+    }
+
+    private Film createValidFilm(int year) {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(year, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+}
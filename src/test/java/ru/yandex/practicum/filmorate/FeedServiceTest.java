@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.FeedEvent;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FeedService;
+import ru.yandex.practicum.filmorate.service.Tombstones;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedServiceTest {
+
+    private final InMemoryUserStorage userStorage = new InMemoryUserStorage();
+    private final FeedService feedService = new FeedService(userStorage, new Tombstones(), 3, 2);
+
+    @Test
+    void getFeed_ShouldReturnFriendsEventsNewestFirstWithinCapacity() {
+        User reader = createUser();
+        User friend = createUser();
+        befriend(reader, friend);
+
+        for (long filmId = 1; filmId <= 5; filmId++) {
+            feedService.onLike(friend.getId(), filmId);
+        }
+
+        List<FeedEvent> feed = feedService.getFeed(reader.getId(), 10, null);
+        assertEquals(List.of(5L, 4L, 3L), entityIds(feed));
+        assertTrue(feed.stream().allMatch(event -> event.getUserId() == friend.getId()
+                && event.getType() == FeedEvent.Type.LIKE));
+
+        List<FeedEvent> older = feedService.getFeed(reader.getId(), 10, feed.get(0).getEventId());
+        assertEquals(List.of(4L, 3L), entityIds(older));
+    }
+
+    @Test
+    void getFeed_FromHighDegreeFriend_ShouldBeReadFromOutboxWithoutDuplicates() {
+        User hub = createUser();
+        User reader = createUser();
+        befriend(hub, reader);
+        feedService.onLike(hub.getId(), 1L);
+        befriend(hub, createUser());
+        befriend(hub, createUser());
+
+        feedService.onLike(hub.getId(), 2L);
+
+        assertEquals(List.of(2L, 1L), entityIds(feedService.getFeed(reader.getId(), 10, null)));
+    }
+
+    @Test
+    void publish_AfterHubLosesFriends_ShouldFanOutAgainAndKeepOutboxEvents() {
+        User hub = createUser();
+        User reader = createUser();
+        User first = createUser();
+        User second = createUser();
+        befriend(hub, reader);
+        befriend(hub, first);
+        befriend(hub, second);
+        feedService.onLike(hub.getId(), 1L);
+
+        userStorage.removeFriend(hub.getId(), second.getId());
+        feedService.onLike(hub.getId(), 2L);
+        userStorage.removeFriend(hub.getId(), first.getId());
+        feedService.onLike(hub.getId(), 3L);
+
+        assertEquals(List.of(3L, 2L, 1L), entityIds(feedService.getFeed(reader.getId(), 10, null)));
+        feedService.onLike(hub.getId(), 4L);
+        assertEquals(List.of(4L, 3L, 2L), entityIds(feedService.getFeed(reader.getId(), 10, null)));
+    }
+
+    @Test
+    void purge_ShouldDropEventsAboutDeletedEntitiesAndKeepOrder() {
+        User reader = createUser();
+        User friend = createUser();
+        User other = createUser();
+        befriend(reader, friend);
+        feedService.onLike(friend.getId(), 1L);
+        feedService.onFriend(friend.getId(), other.getId());
+        feedService.onLike(friend.getId(), 2L);
+
+        feedService.purge(Set.of(other.getId()), Set.of(1L));
+        feedService.onLike(friend.getId(), 3L);
+
+        assertEquals(List.of(3L, 2L), entityIds(feedService.getFeed(reader.getId(), 10, null)));
+    }
+
+    @Test
+    void getFeed_ShouldSkipEventsOfFormerFriends() {
+        User reader = createUser();
+        User friend = createUser();
+        befriend(reader, friend);
+        feedService.onLike(friend.getId(), 1L);
+
+        userStorage.removeFriend(reader.getId(), friend.getId());
+
+        assertTrue(feedService.getFeed(reader.getId(), 10, null).isEmpty());
+    }
+
+    private void befriend(User user, User friend) {
+        userStorage.addFriend(user.getId(), friend.getId());
+    }
+
+    private static List<Long> entityIds(List<FeedEvent> feed) {
+        return feed.stream().map(FeedEvent::getEntityId).collect(Collectors.toList());
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setEmail("feed" + System.nanoTime() + "@example.com");
+        user.setLogin("feed" + System.nanoTime());
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return userStorage.create(user);
+    }
+}
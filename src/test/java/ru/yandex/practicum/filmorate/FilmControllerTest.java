@@ -1,25 +1,41 @@
 package ru.yandex.practicum.filmorate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.controller.FilmController;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 class FilmControllerTest {
 
+    private static final AtomicInteger userNumber = new AtomicInteger();
+
     @Autowired
     private FilmController filmController;
 
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     void addFilm_WithValidData_ShouldAddFilmSuccessfully() {
         Film film = createValidFilm();
@@ -106,12 +122,13 @@ class FilmControllerTest {
     }
 
     @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
     void findAll_WhenNoFilms_ShouldReturnEmptyCollection() {
-        filmController.findAll().clear();
         assertTrue(filmController.findAll().isEmpty());
     }
 
     @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
     void findAll_WhenFilmsExist_ShouldReturnAllFilms() {
         Film film1 = filmController.add(createValidFilm());
         Film film2 = filmController.add(createValidFilm());
@@ -139,6 +156,111 @@ class FilmControllerTest {
         assertEquals(originalFilm.getId(), result.getId());
     }
 
+    @Test
+    void patchFilm_WithOnlyName_ShouldKeepOtherFields() {
+        Film originalFilm = filmController.add(createValidFilm());
+        FilmPatch patch = new FilmPatch();
+        patch.setName("Patched Film");
+
+        Film result = filmController.patch(originalFilm.getId(), patch);
+
+        assertEquals("Patched Film", result.getName());
+        assertEquals("Test Description", result.getDescription());
+        assertEquals(Duration.ofMinutes(120), result.getDuration());
+    }
+
+    @Test
+    void patchFilm_WithInvalidDuration_ShouldNotApplyAnyField() {
+        Film originalFilm = filmController.add(createValidFilm());
+        FilmPatch patch = new FilmPatch();
+        patch.setName("Patched Film");
+        patch.setDuration(Duration.ZERO);
+
+        assertThrows(ValidationException.class, () -> filmController.patch(originalFilm.getId(), patch));
+        assertEquals("Test Film", originalFilm.getName());
+    }
+
+    @Test
+    void patchFilm_WithExplicitNull_ShouldRejectRequiredFieldAndKeepFilm() throws Exception {
+        Film originalFilm = filmController.add(createValidFilm());
+        FilmPatch patch = objectMapper.readValue("{\"name\": null}", FilmPatch.class);
+        FilmPatch absent = objectMapper.readValue("{\"duration\": 90}", FilmPatch.class);
+
+        assertThrows(ValidationException.class, () -> filmController.patch(originalFilm.getId(), patch));
+        Film result = filmController.patch(originalFilm.getId(), absent);
+
+        assertEquals("Test Film", result.getName());
+        assertEquals(Duration.ofMinutes(90), result.getDuration());
+        assertEquals(Set.of(FilmPatch.Field.DURATION), absent.getPresent());
+    }
+
+    @Test
+    void patchFilm_WithReleaseDate_ShouldMoveFilmToOtherYearRanking() {
+        Film film = filmController.add(createValidFilm());
+        FilmPatch patch = new FilmPatch();
+        patch.setReleaseDate(LocalDate.of(1999, 9, 9));
+
+        filmController.patch(film.getId(), patch);
+
+        assertTrue(filmController.getPopularFilms(100, 2020).stream().noneMatch(f -> f.getId().equals(film.getId())));
+        assertTrue(filmController.getPopularFilms(100, 1999).stream().anyMatch(f -> f.getId().equals(film.getId())));
+    }
+
+    @Test
+    void patchFilm_WithBlankName_ShouldThrowValidationException() {
+        Film originalFilm = filmController.add(createValidFilm());
+        FilmPatch patch = new FilmPatch();
+        patch.setName(" ");
+
+        assertThrows(ConstraintViolationException.class, () -> filmController.patch(originalFilm.getId(), patch));
+    }
+
+    @Test
+    void getPopularFilms_WithYear_ShouldRankOnlyFilmsOfThatYear() {
+        Film film2020 = filmController.add(createValidFilm());
+        Film popular2020 = filmController.add(createValidFilm());
+        Film film2010 = createValidFilm();
+        film2010.setReleaseDate(LocalDate.of(2010, 5, 5));
+        film2010 = filmController.add(film2010);
+        User user1 = createUser();
+        User user2 = createUser();
+        filmController.addLike(popular2020.getId(), user1.getId());
+        filmController.addLike(popular2020.getId(), user2.getId());
+        filmController.addLike(film2020.getId(), user1.getId());
+        filmController.addLike(film2010.getId(), user1.getId());
+
+        var result = filmController.getPopularFilms(2, 2020);
+
+        assertEquals(2, result.size());
+        assertEquals(popular2020.getId(), result.get(0).getId());
+        assertEquals(film2020.getId(), result.get(1).getId());
+        assertFalse(result.contains(film2010));
+    }
+
+    @Test
+    void getPopularFilms_AfterReleaseDateChange_ShouldMoveFilmToNewYear() {
+        Film film = createValidFilm();
+        film.setReleaseDate(LocalDate.of(1999, 3, 3));
+        film = filmController.add(film);
+        filmController.addLike(film.getId(), createUser().getId());
+        FilmPatch patch = new FilmPatch();
+        patch.setReleaseDate(LocalDate.of(1998, 3, 3));
+
+        filmController.patch(film.getId(), patch);
+
+        assertTrue(filmController.getPopularFilms(10, 1999).isEmpty());
+        assertEquals(List.of(film), filmController.getPopularFilms(10, 1998));
+    }
+
+    private User createUser() {
+        int number = userNumber.incrementAndGet();
+        User user = new User();
+        user.setEmail("film-fan" + number + "@example.com");
+        user.setLogin("filmfan" + number);
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return userStorage.create(user);
+    }
+
     private Film createValidFilm() {
         Film film = new Film();
         film.setName("Test Film");
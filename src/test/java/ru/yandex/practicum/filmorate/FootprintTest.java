@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Регрессия потребления памяти хранилками в памяти. Удерживаемый объём считается как прирост
+ * занятой кучи после полной сборки мусора на каждом этапе загрузки синтетического набора.
+ * Пороги — замеренные значения с запасом около 25%: если модель или хранилка заметно
+ * потолстела, тест падает, и порог нужно либо обосновать, либо вернуть память.
+ * Масштаб задаётся свойством filmorate.footprint.scale (множитель к 20 000 фильмов и пользователей).
+ * Замер зависит от сборщика и размера кучи, поэтому тест идёт в обычной сборке с закреплёнными в pom.xml
+ * -Xmx512m -XX:+UseSerialGC; отдельно его запускает mvn test -P footprint.
+ */
+@Tag("footprint")
+@Slf4j
+class FootprintTest {
+    private static final int BASE_SIZE = 20_000;
+    private static final long SEED = 42;
+
+    private static final long MAX_BYTES_PER_FILM = 580;
+    private static final long MAX_BYTES_PER_USER = 710;
+    private static final long MAX_BYTES_PER_LIKE = 85;
+    private static final long MAX_BYTES_PER_FRIENDSHIP = 160;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void inMemoryStorages_ShouldStayWithinFootprintBudget() {
+        int size = (int) (BASE_SIZE * Double.parseDouble(System.getProperty("filmorate.footprint.scale", "1")));
+        SyntheticDataset dataset = SyntheticDataset.generate(SEED, size, size, 10, 10);
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+
+        long start = retainedHeap();
+        dataset.loadFilms(filmStorage);
+        long afterFilms = retainedHeap();
+        dataset.loadUsers(userStorage);
+        long afterUsers = retainedHeap();
+        dataset.loadLikes(filmStorage);
+        long afterLikes = retainedHeap();
+        dataset.loadFriendships(userStorage);
+        long afterFriendships = retainedHeap();
+        Reference.reachabilityFence(filmStorage);
+        Reference.reachabilityFence(userStorage);
+
+        long perFilm = (afterFilms - start) / dataset.filmCount();
+        long perUser = (afterUsers - afterFilms) / dataset.userCount();
+        long perLike = (afterLikes - afterUsers) / dataset.likeCount();
+        long perFriendship = (afterFriendships - afterLikes) / dataset.friendshipCount();
+        log.info("Байт на фильм {}, пользователя {}, лайк {}, дружбу {} ({} фильмов, {} пользователей, "
+                        + "{} лайков, {} дружб)", perFilm, perUser, perLike, perFriendship,
+                dataset.filmCount(), dataset.userCount(), dataset.likeCount(), dataset.friendshipCount());
+
+        assertAll(
+                () -> assertTrue(perFilm <= MAX_BYTES_PER_FILM, "Байт на фильм: " + perFilm),
+                () -> assertTrue(perUser <= MAX_BYTES_PER_USER, "Байт на пользователя: " + perUser),
+                () -> assertTrue(perLike <= MAX_BYTES_PER_LIKE, "Байт на лайк: " + perLike),
+                () -> assertTrue(perFriendship <= MAX_BYTES_PER_FRIENDSHIP, "Байт на дружбу: " + perFriendship)
+        );
+    }
+
+    /**
+     * Занятая куча после сборки мусора. System.gc() повторяется, пока объём перестаёт уменьшаться,
+     * чтобы не засчитать мусор от загрузки и отложенную финализацию.
+     */
+    private long retainedHeap() {
+        long previous = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 10; attempt++) {
+            System.gc();
+            long used = memory.getHeapMemoryUsage().getUsed();
+            if (used >= previous) {
+                return previous;
+            }
+            previous = used;
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FriendPathService;
+import ru.yandex.practicum.filmorate.service.Tombstones;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Задержка поиска цепочки друзей на степенном графе из {@link SyntheticDataset} рядом с обычным
+ * односторонним BFS по тем же парам. Длина найденной цепочки сверяется с расстоянием BFS,
+ * чтобы замер не шёл по неверному ответу.
+ * По умолчанию не запускается: mvn test -P benchmark. Число пользователей задаётся свойством
+ * filmorate.benchmark.size, число пар — filmorate.benchmark.iterations.
+ */
+@Tag("benchmark")
+@Slf4j
+class FriendPathBenchmarkTest {
+    private static final long SEED = 42;
+    private static final int MAX_DEPTH = 12;
+    private static final int WARMUP_PAIRS = 50;
+
+    @Test
+    void findPath_OnPowerLawGraph_ShouldReturnShortestChainsFasterThanPlainBfs() {
+        int size = Integer.getInteger("filmorate.benchmark.size", 200_000);
+        int pairs = Integer.getInteger("filmorate.benchmark.iterations", 200);
+        SyntheticDataset dataset = SyntheticDataset.generate(SEED, 1, size, 0, 8);
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        dataset.loadInto(new InMemoryFilmStorage(), userStorage);
+        FriendPathService service = new FriendPathService(userStorage, new Tombstones(), 1_000_000, 10_000);
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < WARMUP_PAIRS; i++) {
+            service.findPath(dataset.userId(random.nextInt(size)), dataset.userId(random.nextInt(size)), MAX_DEPTH);
+        }
+        long[] bidirectional = new long[pairs];
+        long[] plain = new long[pairs];
+        for (int i = 0; i < pairs; i++) {
+            long from = dataset.userId(random.nextInt(size));
+            long to = dataset.userId(random.nextInt(size));
+
+            long start = System.nanoTime();
+            List<User> path = service.findPath(from, to, MAX_DEPTH);
+            bidirectional[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int distance = distance(userStorage, from, to);
+            plain[i] = System.nanoTime() - start;
+
+            assertEquals(distance + 1, path.size(), "Цепочка " + from + " -> " + to);
+            for (int j = 1; j < path.size(); j++) {
+                assertTrue(userStorage.findFriendIds(path.get(j - 1).getId()).contains(path.get(j).getId()));
+            }
+        }
+        log.info("{} пользователей, {} пар: двунаправленный поиск {}; односторонний BFS {}",
+                size, pairs, percentiles(bidirectional), percentiles(plain));
+
+        assertTrue(median(bidirectional) < median(plain),
+                "Двунаправленный " + percentiles(bidirectional) + ", односторонний " + percentiles(plain));
+    }
+
+    private static int distance(InMemoryUserStorage userStorage, long from, long to) {
+        Map<Long, Integer> depths = new HashMap<>();
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        depths.put(from, 0);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            long node = queue.poll();
+            int depth = depths.get(node);
+            if (node == to) {
+                return depth;
+            }
+            for (Long friend : userStorage.findFriendIds(node)) {
+                if (depths.putIfAbsent(friend, depth + 1) == null) {
+                    queue.add(friend);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String percentiles(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return String.format("медиана %.2f мс, p99 %.2f мс", sorted[sorted.length / 2] / 1e6,
+                sorted[Math.min(sorted.length - 1, sorted.length * 99 / 100)] / 1e6);
+    }
+}
@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.ImportFormat;
+import ru.yandex.practicum.filmorate.model.ImportJob;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FeedService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.ImportService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ImportServiceTest {
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void importFile_WithNdjson_ShouldImportEntitiesAndEdges() throws IOException {
+        Path file = directory.resolve("seed.ndjson");
+        Files.write(file, List.of(
+                "{\"type\":\"like\",\"filmId\":10,\"userId\":1}",
+                "{\"type\":\"film\",\"id\":10,\"name\":\"Imported\",\"description\":\"Desc\","
+                        + "\"releaseDate\":\"2001-02-03\",\"duration\":95}",
+                "{\"type\":\"user\",\"id\":1,\"email\":\"import-ndjson1@example.com\",\"login\":\"importNdjson1\","
+                        + "\"birthday\":\"1990-01-01\"}",
+                "{\"type\":\"user\",\"id\":2,\"email\":\"import-ndjson2@example.com\",\"login\":\"importNdjson2\"}",
+                "{\"type\":\"friend\",\"userId\":1,\"friendId\":2}",
+                "",
+                "{\"type\":\"film\",\"id\":11,\"name\":\"\",\"description\":\"Desc\","
+                        + "\"releaseDate\":\"2001-02-03\",\"duration\":95}",
+                "{\"type\":\"film\",\"id\":12,\"name\":\"Too old\",\"description\":\"Desc\","
+                        + "\"releaseDate\":\"1800-02-03\",\"duration\":95}",
+                "not json"));
+
+        ImportJob job = importService.importFile(file, ImportFormat.NDJSON);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(9, job.getRowsRead());
+        assertEquals(5, job.getRowsImported());
+        assertEquals(3, job.getRowsRejected());
+        User user1 = userStorage.findByEmail("import-ndjson1@example.com").orElseThrow();
+        User user2 = userStorage.findByEmail("import-ndjson2@example.com").orElseThrow();
+        assertTrue(user1.getFriendsId().contains(user2.getId()));
+        assertEquals("importNdjson2", user2.getName());
+        Film film = filmStorage.findById(user1.getLikedFilmId().iterator().next()).orElseThrow();
+        assertEquals("Imported", film.getName());
+        assertEquals(Duration.ofMinutes(95), film.getDuration());
+        assertTrue(film.getLikes().contains(user1.getId()));
+    }
+
+    @Test
+    void importFile_WithCsv_ShouldParseQuotedColumnsAndRejectDuplicates() throws IOException {
+        Path file = directory.resolve("seed.csv");
+        Files.write(file, List.of(
+                "type,id,name,description,releaseDate,duration",
+                "film,1,\"Film, with comma\",\"He said \"\"hi\"\"\",1999-09-09,100",
+                "user,5,import-csv@example.com,importCsv,Csv User,1980-05-05",
+                "user,6,IMPORT-CSV@example.com,importCsv2,,1980-05-05",
+                "like,1,5"));
+
+        ImportJob job = importService.importFile(file, ImportFormat.CSV);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getRowsImported());
+        assertEquals(1, job.getRowsRejected());
+        User user = userStorage.findByLogin("importCsv").orElseThrow();
+        Film film = filmStorage.findById(user.getLikedFilmId().iterator().next()).orElseThrow();
+        assertEquals("Film, with comma", film.getName());
+        assertEquals("He said \"hi\"", film.getDescription());
+    }
+
+    @Test
+    void importFile_WithUnresolvedEdges_ShouldRejectThemWithLineNumbers() throws IOException {
+        Path file = directory.resolve("dangling.ndjson");
+        Files.write(file, List.of(
+                "{\"type\":\"user\",\"id\":1,\"email\":\"import-dangling@example.com\",\"login\":\"importDangling\"}",
+                "{\"type\":\"like\",\"filmId\":77,\"userId\":1}",
+                "{\"type\":\"friend\",\"userId\":1,\"friendId\":78}"));
+
+        ImportJob job = importService.importFile(file, ImportFormat.NDJSON);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getRowsImported());
+        assertEquals(2, job.getRowsRejected());
+        assertTrue(job.getErrors().contains("строка 2: лайк 77->1: фильм 77 не найден в файле"),
+                job.getErrors()::toString);
+        assertTrue(job.getErrors().contains("строка 3: дружба 1->78: пользователь 78 не найден в файле"),
+                job.getErrors()::toString);
+        assertTrue(userStorage.findByLogin("importDangling").orElseThrow().getFriendsId().isEmpty());
+    }
+
+    @Test
+    void importFile_WithZeroOrBlankEdgeIdsMidChunk_ShouldRejectOnlyThoseRows() throws IOException {
+        Path file = directory.resolve("zero-ids.csv");
+        Files.write(file, List.of(
+                "film,1,Zero Ids,Desc,2001-02-03,95",
+                "user,1,import-zero1@example.com,importZero1,,1990-01-01",
+                "user,2,import-zero2@example.com,importZero2,,1990-01-01",
+                "like,0,1",
+                "like,1,",
+                "friend,1,0",
+                "user,-3,import-zero3@example.com,importZero3,,1990-01-01",
+                "like,1,2",
+                "friend,1,2"));
+
+        ImportJob job = importService.importFile(file, ImportFormat.CSV);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(5, job.getRowsImported());
+        assertEquals(4, job.getRowsRejected());
+        assertTrue(job.getErrors().contains("строка 4: поле filmId должно быть положительным: 0"),
+                job.getErrors()::toString);
+        assertTrue(job.getErrors().contains("строка 5: не указано поле userId"), job.getErrors()::toString);
+        User user1 = userStorage.findByLogin("importZero1").orElseThrow();
+        User user2 = userStorage.findByLogin("importZero2").orElseThrow();
+        assertEquals(1, user2.getLikedFilmId().size());
+        assertTrue(user1.getLikedFilmId().isEmpty());
+        assertTrue(user1.getFriendsId().contains(user2.getId()));
+
+        Path json = directory.resolve("zero-ids.ndjson");
+        Files.write(json, List.of(
+                "{\"type\":\"like\",\"filmId\":0,\"userId\":1}",
+                "{\"type\":\"user\",\"id\":4,\"email\":\"import-zero4@example.com\",\"login\":\"importZero4\"}",
+                "{\"type\":\"friend\",\"userId\":\"\",\"friendId\":4}"));
+
+        ImportJob jsonJob = importService.importFile(json, ImportFormat.NDJSON);
+
+        assertEquals(1, jsonJob.getRowsImported());
+        assertEquals(2, jsonJob.getRowsRejected());
+    }
+
+    @Test
+    void importFile_WithEdgeBatches_ShouldRankFilmsWithoutPublishingFeed() throws IOException {
+        Path file = directory.resolve("batch.csv");
+        Files.write(file, List.of(
+                "film,1,Batch Film,Desc,1911-01-01,90",
+                "film,2,Batch Runner-up,Desc,1911-01-01,90",
+                "user,1,import-batch1@example.com,importBatch1,,1990-01-01",
+                "user,2,import-batch2@example.com,importBatch2,,1990-01-01",
+                "user,3,import-batch3@example.com,importBatch3,,1990-01-01",
+                "like,1,1",
+                "like,1,2",
+                "like,1,3",
+                "like,2,1",
+                "like,1,3",
+                "friend,1,2",
+                "friend,2,3",
+                "friend,3,3"));
+
+        ImportJob job = importService.importFile(file, ImportFormat.CSV);
+
+        assertEquals(11, job.getRowsImported());
+        assertEquals(2, job.getRowsRejected());
+        List<Film> popular = filmService.getPopularFilms(2, 1911);
+        assertEquals(List.of("Batch Film", "Batch Runner-up"), popular.stream().map(Film::getName).toList());
+        assertEquals(3, popular.get(0).getLikes().size());
+        User user2 = userStorage.findByLogin("importBatch2").orElseThrow();
+        assertEquals(2, user2.getFriendsId().size());
+        assertEquals(1, user2.getLikedFilmId().size());
+        assertTrue(feedService.getFeed(user2.getId(), 10, null).isEmpty());
+    }
+
+    @Test
+    void importFile_WithCsvFormat_ShouldNotSniffJsonLines() throws IOException {
+        Path file = directory.resolve("mixed.csv");
+        Files.write(file, List.of(
+                "{\"type\":\"user\",\"id\":1,\"email\":\"import-sniff@example.com\",\"login\":\"importSniff\"}"));
+
+        ImportJob job = importService.importFile(file, ImportFormat.CSV);
+
+        assertEquals(0, job.getRowsImported());
+        assertEquals(1, job.getRowsRejected());
+        assertTrue(userStorage.findByLogin("importSniff").isEmpty());
+    }
+}
@@ -0,0 +1,179 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LikeContentionTest {
+    private static final int THREADS = 2000;
+    private static final AtomicInteger userNumber = new AtomicInteger();
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void addLike_FromThousandsOfThreadsOnOneFilm_ShouldCountEveryLikeExactlyOnce() throws InterruptedException {
+        Film viral = filmService.add(createValidFilm(1977));
+        Film runnerUp = filmService.add(createValidFilm(1977));
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            users.add(userStorage.create(createValidUser()));
+        }
+        for (int i = 0; i < THREADS - 1; i++) {
+            filmService.addLike(runnerUp.getId(), users.get(i).getId());
+        }
+
+        runConcurrently(THREADS, i -> filmService.addLike(viral.getId(), users.get(i).getId()));
+
+        assertEquals(THREADS, filmStorage.findById(viral.getId()).orElseThrow().getLikes().size());
+        assertEquals(List.of(viral.getId(), runnerUp.getId()), filmService.getPopularFilms(2, 1977).stream()
+                .map(Film::getId)
+                .toList());
+
+        runConcurrently(THREADS, i -> filmService.removeLike(viral.getId(), users.get(i).getId()));
+
+        assertTrue(filmStorage.findById(viral.getId()).orElseThrow().getLikes().isEmpty());
+        assertEquals(runnerUp.getId(), filmService.getPopularFilms(1, 1977).get(0).getId());
+    }
+
+    @Test
+    void addLike_SameUserFromManyThreads_ShouldSucceedOnlyOnce() throws InterruptedException {
+        Film film = filmService.add(createValidFilm(1978));
+        User user = userStorage.create(createValidUser());
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(THREADS, i -> {
+            try {
+                filmService.addLike(film.getId(), user.getId());
+                succeeded.incrementAndGet();
+            } catch (AlreadyExistsException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, succeeded.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(1, filmStorage.findById(film.getId()).orElseThrow().getLikes().size());
+    }
+
+    @Test
+    void remove_RacingWithLikes_ShouldNotLeaveDeletedFilmsRanked() throws InterruptedException {
+        FilmPopularityIndex index = new FilmPopularityIndex();
+        int films = 200;
+        for (long id = 1; id <= films; id++) {
+            Film film = createValidFilm(1979);
+            film.setId(id);
+            index.index(film);
+        }
+
+        runConcurrently(THREADS, i -> {
+            long filmId = i % films + 1;
+            if (i < films && filmId % 2 == 0) {
+                index.remove(filmId);
+            } else {
+                index.adjustLikes(filmId, 1);
+            }
+        });
+
+        List<Long> ranked = index.findTopFilmIds(1979, films);
+        assertEquals(films / 2, ranked.size());
+        assertTrue(ranked.stream().allMatch(id -> id % 2 == 1), () -> "В рейтинге остались удалённые: " + ranked);
+    }
+
+    @Test
+    void index_RacingWithLikesOnNewFilms_ShouldNotLoseOrDoubleCountThem() throws InterruptedException {
+        FilmPopularityIndex index = new FilmPopularityIndex();
+        int films = 200;
+        int likesPerFilm = 5;
+
+        runConcurrently(films * (likesPerFilm + 1), i -> {
+            long filmId = i % films + 1;
+            if (i < films) {
+                Film film = createValidFilm(1980);
+                film.setId(filmId);
+                index.index(film);
+            } else {
+                index.adjustLikes(filmId, filmId % 2 == 0 ? 1 : 0);
+            }
+        });
+
+        List<Long> ranked = index.findTopFilmIds(1980, films);
+        assertEquals(films, ranked.size());
+        assertTrue(ranked.subList(0, films / 2).stream().allMatch(id -> id % 2 == 0),
+                () -> "Лайки, пришедшие до индексации, потеряны: " + ranked);
+    }
+
+    private static void runConcurrently(int threads, IndexedTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        List<Throwable> errors = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(index);
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(errors.isEmpty(), () -> "Ошибки в потоках: " + errors);
+    }
+
+    private Film createValidFilm(int year) {
+        Film film = new Film();
+        film.setName("Viral Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(year, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+
+    private User createValidUser() {
+        int number = userNumber.incrementAndGet();
+        User user = new User();
+        user.setEmail("liker" + number + "@example.com");
+        user.setLogin("liker" + number);
+        user.setName("User Name");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    @FunctionalInterface
+    private interface IndexedTask {
+        void run(int index) throws Exception;
+    }
+}
@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Пропускная способность лайков одного вирусного фильма через FilmService при 1, 2, 4 ... N потоках.
+ * В каждом раунде новый фильм получает по лайку от каждого пользователя, потоки делят пользователей
+ * поровну; после раунда число лайков сверяется точно. Замерам предшествует прогревочный проход.
+ * По умолчанию не запускается: mvn test -P benchmark. Число лайков в раунде задаётся свойством
+ * filmorate.benchmark.size, наибольшее число потоков — filmorate.benchmark.threads.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Slf4j
+class LikeThroughputBenchmarkTest {
+    private static final int YEAR = 1923;
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void addLike_OnOneFilm_ShouldNotDegradeWithMoreThreads() throws InterruptedException {
+        int size = Integer.getInteger("filmorate.benchmark.size", 200_000);
+        int maxThreads = Integer.getInteger("filmorate.benchmark.threads",
+                Math.max(8, Runtime.getRuntime().availableProcessors() * 2));
+        long[] userIds = createUsers(size);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            measure(userIds, threads);
+        }
+        Map<Integer, Double> throughput = new LinkedHashMap<>();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            throughput.put(threads, measure(userIds, threads));
+        }
+        StringBuilder report = new StringBuilder();
+        throughput.forEach((threads, likesPerSecond) -> report.append(String.format("%n  %3d потоков: %,.0f лайков/с",
+                threads, likesPerSecond)));
+        log.info("Лайки одного фильма, {} за раунд:{}", size, report);
+
+        double single = throughput.get(1);
+        throughput.forEach((threads, likesPerSecond) -> assertTrue(likesPerSecond > single / 2,
+                threads + " потоков: " + likesPerSecond + " лайков/с против " + single + " в одном потоке"));
+    }
+
+    private double measure(long[] userIds, int threads) throws InterruptedException {
+        long filmId = filmService.add(createValidFilm()).getId();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>(threads);
+        List<Throwable> errors = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) userIds.length * t / threads);
+            int to = (int) ((long) userIds.length * (t + 1) / threads);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = from; i < to; i++) {
+                        filmService.addLike(filmId, userIds[i]);
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        assertTrue(errors.isEmpty(), () -> "Ошибки в потоках: " + errors);
+        assertEquals(userIds.length, filmStorage.findById(filmId).orElseThrow().getLikes().size());
+        return userIds.length * 1e9 / elapsed;
+    }
+
+    private long[] createUsers(int count) {
+        long[] ids = new long[count];
+        for (int from = 0; from < count; from += BATCH_SIZE) {
+            List<User> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = from; i < Math.min(count, from + BATCH_SIZE); i++) {
+                batch.add(createValidUser(i));
+            }
+            List<User> created = userStorage.createAll(batch);
+            for (int i = 0; i < created.size(); i++) {
+                ids[from + i] = created.get(i).getId();
+            }
+        }
+        return ids;
+    }
+
+    private static Film createValidFilm() {
+        Film film = new Film();
+        film.setName("Viral Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(YEAR, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+
+    private static User createValidUser(int number) {
+        User user = new User();
+        user.setEmail("throughput" + number + "@example.com");
+        user.setLogin("throughput" + number);
+        user.setName("User Name");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate;
+
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MultiGetTest {
+    private static final AtomicInteger userNumber = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Test
+    void getFilms_WithIds_ShouldReturnFilmsInRequestedOrderSkippingUnknown() throws Exception {
+        Film first = filmService.add(createValidFilm());
+        Film second = filmService.add(createValidFilm());
+
+        mockMvc.perform(get("/films").param("ids", second.getId() + "," + first.getId() + ",999999," + second.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(second.getId()))
+                .andExpect(jsonPath("$[1].id").value(first.getId()));
+        mockMvc.perform(get("/films").param("ids", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUsers_WithIds_ShouldReturnUsersAndLimitRequestSize() throws Exception {
+        User first = userController.create(createValidUser());
+        User second = userController.create(createValidUser());
+
+        mockMvc.perform(get("/users?ids=" + first.getId() + "," + second.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].login").value(first.getLogin()));
+
+        List<Long> tooMany = LongStream.rangeClosed(1, 501).boxed().collect(Collectors.toList());
+        assertThrows(ConstraintViolationException.class, () -> userController.findAllById(tooMany));
+        assertEquals(List.of(), userController.findAllById(Collections.emptyList()));
+        assertThrows(ConstraintViolationException.class,
+                () -> userController.findAllById(Arrays.asList(first.getId(), null)));
+        assertEquals(List.of(first), userService.findAllById(Arrays.asList(null, first.getId())));
+    }
+
+    @Test
+    void findAllFriends_ShouldResolveFriendsInOneBatch() {
+        User user = userController.create(createValidUser());
+        User friend = userController.create(createValidUser());
+        User other = userController.create(createValidUser());
+        userService.addFriends(user.getId(), friend.getId());
+        userService.addFriends(user.getId(), other.getId());
+        userService.addFriends(other.getId(), friend.getId());
+
+        assertEquals(Set.of(friend, other), userService.findAllFriends(user.getId()));
+        assertEquals(Set.of(friend), userService.getCommonFriends(user.getId(), other.getId()));
+    }
+
+    private Film createValidFilm() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+
+    private User createValidUser() {
+        int number = userNumber.incrementAndGet();
+        User user = new User();
+        user.setEmail("multi" + number + "@example.com");
+        user.setLogin("multi" + number);
+        user.setName("User Name");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
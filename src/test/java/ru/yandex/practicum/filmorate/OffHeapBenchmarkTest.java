@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.OffHeapFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.OffHeapUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сравнение хранилищ в куче и вне кучи на одном синтетическом наборе: удерживаемая куча после загрузки,
+ * число и суммарное время сборок за загрузку и длительность полной сборки при загруженных данных.
+ * По умолчанию не запускается: mvn test -P benchmark. Размер набора задаётся свойством
+ * filmorate.benchmark.size.
+ */
+@Tag("benchmark")
+@Slf4j
+class OffHeapBenchmarkTest {
+    private static final long SEED = 42;
+    private static final int CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void offHeapStorages_ShouldRetainLessHeapThanInMemory() {
+        int size = Integer.getInteger("filmorate.benchmark.size", 200_000);
+        SyntheticDataset dataset = SyntheticDataset.generate(SEED, size, size, 10, 10);
+
+        Result inMemory = measure(dataset, InMemoryFilmStorage::new, InMemoryUserStorage::new);
+        Result offHeap = measure(dataset, () -> new OffHeapFilmStorage(CHUNK_SIZE),
+                () -> new OffHeapUserStorage(CHUNK_SIZE));
+        log.info("{} фильмов и пользователей: в куче {}; вне кучи {}", size, inMemory, offHeap);
+
+        assertTrue(offHeap.retainedBytes < inMemory.retainedBytes,
+                "Вне кучи " + offHeap + ", в куче " + inMemory);
+    }
+
+    private Result measure(SyntheticDataset dataset, Supplier<FilmStorage> films, Supplier<UserStorage> users) {
+        long start = retainedHeap();
+        long collectionsBefore = collections();
+        long collectionMillisBefore = collectionMillis();
+        FilmStorage filmStorage = films.get();
+        UserStorage userStorage = users.get();
+        dataset.loadInto(filmStorage, userStorage);
+        long collections = collections() - collectionsBefore;
+        long collectionMillis = collectionMillis() - collectionMillisBefore;
+        long retained = retainedHeap() - start;
+        long fullGcStart = System.nanoTime();
+        System.gc();
+        long fullGcMillis = (System.nanoTime() - fullGcStart) / 1_000_000;
+        Reference.reachabilityFence(filmStorage);
+        Reference.reachabilityFence(userStorage);
+        return new Result(retained, collections, collectionMillis, fullGcMillis);
+    }
+
+    private long retainedHeap() {
+        long previous = Long.MAX_VALUE;
+        for (int attempt = 0; attempt < 10; attempt++) {
+            System.gc();
+            long used = memory.getHeapMemoryUsage().getUsed();
+            if (used >= previous) {
+                return previous;
+            }
+            previous = used;
+        }
+        return previous;
+    }
+
+    private static long collections() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long collectionMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
+    private record Result(long retainedBytes, long collections, long collectionMillis, long fullGcMillis) {
+        @Override
+        public String toString() {
+            return String.format("куча %d КБ, сборок при загрузке %d (%d мс), полная сборка %d мс",
+                    retainedBytes / 1024, collections, collectionMillis, fullGcMillis);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
+import ru.yandex.practicum.filmorate.storage.film.OffHeapFilmStorage;
+import ru.yandex.practicum.filmorate.storage.offheap.OffHeapRecordStore;
+import ru.yandex.practicum.filmorate.storage.user.OffHeapUserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStorageTest {
+
+    private final OffHeapFilmStorage filmStorage = new OffHeapFilmStorage(1024);
+    private final OffHeapUserStorage userStorage = new OffHeapUserStorage(1024);
+
+    @Test
+    void addFilm_ShouldMaterializeSameFieldsOnRead() {
+        Film film = filmStorage.add(createValidFilm());
+
+        Film result = filmStorage.findById(film.getId()).orElseThrow();
+
+        assertEquals(film, result);
+        assertNotSame(film, result);
+        assertEquals(List.of(result), filmStorage.findAllById(Arrays.asList(null, film.getId())));
+    }
+
+    @Test
+    void updateFilm_WithLongerDescription_ShouldRelocateRecord() {
+        Film film = filmStorage.add(createValidFilm());
+        Film other = filmStorage.add(createValidFilm());
+        Film updatedFilm = new Film();
+        updatedFilm.setId(film.getId());
+        updatedFilm.setDescription("D".repeat(200));
+
+        filmStorage.update(updatedFilm);
+
+        assertEquals("D".repeat(200), filmStorage.findById(film.getId()).orElseThrow().getDescription());
+        assertEquals(other, filmStorage.findById(other.getId()).orElseThrow());
+        assertEquals(2, filmStorage.findAll().size());
+    }
+
+    @Test
+    void recordStore_UnderRepeatedRelocationAndDelete_ShouldCompactAndKeepChunkCountBounded() {
+        OffHeapRecordStore store = new OffHeapRecordStore(1024);
+        store.put(100, new byte[]{7});
+        for (int round = 0; round < 10_000; round++) {
+            long id = round % 10 + 1;
+            store.put(id, new byte[16]);
+            store.put(id, new byte[64]);
+            if (round % 3 == 0) {
+                store.remove(id);
+            }
+        }
+
+        assertTrue(store.chunkCount() <= 3, "Чанков: " + store.chunkCount());
+        assertTrue(store.wastedBytes() * 2 <= store.allocatedBytes() || store.wastedBytes() < 1024);
+        assertArrayEquals(new byte[]{7}, store.get(100));
+        assertEquals(64, store.get(9).length);
+    }
+
+    @Test
+    void likes_ShouldBeSharedBetweenMaterializedCopies() {
+        Film film = filmStorage.add(createValidFilm());
+
+        filmStorage.findById(film.getId()).orElseThrow().getLikes().add(42L);
+
+        assertTrue(filmStorage.findById(film.getId()).orElseThrow().getLikes().contains(42L));
+    }
+
+    @Test
+    void edgeBatches_ShouldSkipMissingEntitiesAndDuplicates() {
+        Film film = filmStorage.add(createValidFilm());
+        User user = userStorage.create(createValidUser());
+        User friend = createValidUser();
+        friend.setEmail("друг@example.com");
+        friend.setLogin("friend");
+        friend = userStorage.create(friend);
+
+        boolean[] added = filmStorage.addLikes(List.of(new long[]{film.getId(), user.getId()},
+                new long[]{film.getId(), user.getId()}, new long[]{999, user.getId()}));
+        userStorage.addLikedFilms(List.of(new long[]{film.getId(), user.getId()}));
+        userStorage.addFriends(List.of(new long[]{user.getId(), friend.getId()}, new long[]{user.getId(), 999}));
+
+        assertArrayEquals(new boolean[]{true, false, false}, added);
+        assertEquals(Set.of(user.getId()), filmStorage.findById(film.getId()).orElseThrow().getLikes());
+        assertEquals(Set.of(film.getId()), userStorage.findById(user.getId()).orElseThrow().getLikedFilmId());
+        assertEquals(Set.of(friend.getId()), userStorage.findFriendIds(user.getId()));
+        assertEquals(Set.of(user.getId()), userStorage.findFriendIds(friend.getId()));
+    }
+
+    @Test
+    void updateFilm_WithNonExistentId_ShouldThrowNotFoundException() {
+        Film film = createValidFilm();
+        film.setId(999L);
+
+        assertThrows(NotFoundException.class, () -> filmStorage.update(film));
+    }
+
+    @Test
+    void addFilm_WithEarlyReleaseDate_ShouldThrowValidationException() {
+        Film film = createValidFilm();
+        film.setReleaseDate(LocalDate.of(1895, 12, 27));
+
+        assertThrows(ValidationException.class, () -> filmStorage.add(film));
+    }
+
+    @Test
+    void createUser_WithNullName_ShouldStoreLoginAsName() {
+        User user = createValidUser();
+        user.setName(null);
+
+        User result = userStorage.findById(userStorage.create(user).getId()).orElseThrow();
+
+        assertEquals("login", result.getName());
+        assertEquals("пользователь@example.com", result.getEmail());
+        assertEquals(LocalDate.of(2000, 1, 1), result.getBirthday());
+    }
+
+    @Test
+    void updateUser_ShouldPersistChangedFields() {
+        User user = userStorage.create(createValidUser());
+        User updatedUser = new User();
+        updatedUser.setId(user.getId());
+        updatedUser.setName("Updated Name");
+
+        userStorage.update(updatedUser);
+
+        User result = userStorage.findById(user.getId()).orElseThrow();
+        assertEquals("Updated Name", result.getName());
+        assertEquals("login", result.getLogin());
+    }
+
+    @Test
+    void patch_ShouldRewriteFixedFieldsInPlaceAndKeepOthers() {
+        Film film = filmStorage.add(createValidFilm());
+        User user = userStorage.create(createValidUser());
+        FilmPatch filmPatch = new FilmPatch();
+        filmPatch.setDuration(Duration.ofSeconds(5400, 7));
+        filmPatch.setReleaseDate(LocalDate.of(1999, 1, 1));
+        UserPatch userPatch = new UserPatch();
+        userPatch.setBirthday(null);
+
+        filmStorage.patch(film.getId(), filmPatch);
+        userStorage.patch(user.getId(), userPatch);
+
+        Film patchedFilm = filmStorage.findById(film.getId()).orElseThrow();
+        assertEquals(Duration.ofSeconds(5400, 7), patchedFilm.getDuration());
+        assertEquals(LocalDate.of(1999, 1, 1), patchedFilm.getReleaseDate());
+        assertEquals("Test Description", patchedFilm.getDescription());
+        User patchedUser = userStorage.findById(user.getId()).orElseThrow();
+        assertNull(patchedUser.getBirthday());
+        assertEquals("User Name", patchedUser.getName());
+    }
+
+    @Test
+    void deleteUser_ShouldFreeRecordAndUniqueKeys() {
+        User user = userStorage.create(createValidUser());
+        user.getFriendsId().add(42L);
+        assertEquals(Set.of(42L), userStorage.findFriendIds(user.getId()));
+
+        User removed = userStorage.delete(user.getId()).orElseThrow();
+
+        assertEquals(Set.of(42L), removed.getFriendsId());
+        assertTrue(userStorage.findById(user.getId()).isEmpty());
+        assertEquals(Set.of(), userStorage.findFriendIds(user.getId()));
+        assertTrue(userStorage.findAll().isEmpty());
+        assertNotEquals(user.getId(), userStorage.create(createValidUser()).getId());
+    }
+
+    private Film createValidFilm() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(2020, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+
+    private User createValidUser() {
+        User user = new User();
+        user.setEmail("пользователь@example.com");
+        user.setLogin("login");
+        user.setName("User Name");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
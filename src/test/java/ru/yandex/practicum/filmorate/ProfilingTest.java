@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmPatch;
+import ru.yandex.practicum.filmorate.profiling.JfrSummary;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProfilingTest {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void recording_ShouldContainStorageServiceAndSerializationEvents() throws Exception {
+        Path file = directory.resolve("test.jfr");
+        Film film;
+        try (Recording recording = new Recording()) {
+            recording.enable("filmorate.StorageOperation").withThreshold(Duration.ZERO);
+            recording.enable("filmorate.ServiceOperation").withThreshold(Duration.ZERO);
+            recording.enable("filmorate.JsonSerialization").withThreshold(Duration.ZERO);
+            recording.start();
+
+            film = filmService.add(createValidFilm());
+            filmService.getPopularFilms(5);
+            filmService.patchFilm(film.getId(), new FilmPatch());
+            mockMvc.perform(get("/films/popular?count=5")).andExpect(status().isOk());
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("filmorate.StorageOperation")
+                && event.getString("operation").endsWith(".findPopular")));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("filmorate.ServiceOperation")
+                && event.getString("operation").equals("FilmService.getPopularFilms")
+                && event.getLong("entityId") == 0));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("filmorate.ServiceOperation")
+                && event.getString("operation").equals("FilmService.patchFilm")
+                && event.getLong("entityId") == film.getId()));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("filmorate.StorageOperation")
+                && event.getString("operation").endsWith(".patch")
+                && event.getLong("entityId") == film.getId()));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("filmorate.JsonSerialization")
+                && event.getLong("bytes") > 0));
+
+        ByteArrayOutputStream summary = new ByteArrayOutputStream();
+        JfrSummary.summarize(file, new PrintStream(summary, true, StandardCharsets.UTF_8));
+        assertTrue(summary.toString(StandardCharsets.UTF_8).contains("ServiceOperation FilmService.add"));
+    }
+
+    private Film createValidFilm() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+}
@@ -0,0 +1,273 @@
+package ru.yandex.practicum.filmorate;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Детерминированный синтетический набор данных: фильмы, пользователи, лайки и дружба.
+ * Число лайков пользователя распределено по Парето, фильмы выбираются по Ципфу, граф дружбы
+ * строится предпочтительным присоединением (Барабаши — Альберт), так что у популярных фильмов
+ * и пользователей длинный хвост, как в проде. Один и тот же seed даёт один и тот же набор.
+ * Рёбра хранятся индексами в массивах int, а сами фильмы и пользователи создаются только
+ * при загрузке, чтобы набор не удерживал объекты, которые должна держать хранилка.
+ */
+final class SyntheticDataset {
+    private static final int BATCH_SIZE = 1000;
+    private static final double LIKES_PARETO_ALPHA = 2.5;
+    private static final double FILMS_ZIPF_EXPONENT = 1.0;
+
+    private final long seed;
+    private final int filmCount;
+    private final int userCount;
+    private final IntPairs likes = new IntPairs();
+    private final IntPairs friendships = new IntPairs();
+    private long[] filmIds;
+    private long[] userIds;
+
+    private SyntheticDataset(long seed, int filmCount, int userCount) {
+        this.seed = seed;
+        this.filmCount = filmCount;
+        this.userCount = userCount;
+    }
+
+    /**
+     * @param likesPerUser   среднее число лайков пользователя
+     * @param friendsPerUser среднее число друзей пользователя, округляется до чётного
+     */
+    static SyntheticDataset generate(long seed, int films, int users, int likesPerUser, int friendsPerUser) {
+        if (films <= 0 || users <= 0 || likesPerUser < 0 || friendsPerUser < 0) {
+            throw new IllegalArgumentException("Размеры набора данных должны быть положительными");
+        }
+        SyntheticDataset dataset = new SyntheticDataset(seed, films, users);
+        SplittableRandom random = new SplittableRandom(seed);
+        dataset.generateLikes(random.split(), likesPerUser);
+        dataset.generateFriendships(random.split(), Math.max(1, friendsPerUser / 2));
+        return dataset;
+    }
+
+    int filmCount() {
+        return filmCount;
+    }
+
+    int userCount() {
+        return userCount;
+    }
+
+    int likeCount() {
+        return likes.size;
+    }
+
+    int friendshipCount() {
+        return friendships.size;
+    }
+
+    /**
+     * Пары (индекс фильма, индекс пользователя) в порядке генерации.
+     */
+    int[] likeEdges() {
+        return likes.toArray();
+    }
+
+    /**
+     * Пары индексов пользователей; каждая дружба взаимная и встречается один раз.
+     */
+    int[] friendshipEdges() {
+        return friendships.toArray();
+    }
+
+    void loadInto(FilmStorage filmStorage, UserStorage userStorage) {
+        loadFilms(filmStorage);
+        loadUsers(userStorage);
+        loadLikes(filmStorage);
+        loadFriendships(userStorage);
+    }
+
+    void loadFilms(FilmStorage filmStorage) {
+        filmIds = new long[filmCount];
+        for (int from = 0; from < filmCount; from += BATCH_SIZE) {
+            List<Film> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = from; i < Math.min(filmCount, from + BATCH_SIZE); i++) {
+                batch.add(film(i));
+            }
+            List<Film> added = filmStorage.addAll(batch);
+            for (int i = 0; i < added.size(); i++) {
+                filmIds[from + i] = added.get(i).getId();
+            }
+        }
+    }
+
+    void loadUsers(UserStorage userStorage) {
+        userIds = new long[userCount];
+        for (int from = 0; from < userCount; from += BATCH_SIZE) {
+            List<User> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = from; i < Math.min(userCount, from + BATCH_SIZE); i++) {
+                batch.add(user(i));
+            }
+            List<User> created = userStorage.createAll(batch);
+            for (int i = 0; i < created.size(); i++) {
+                userIds[from + i] = created.get(i).getId();
+            }
+        }
+    }
+
+    void loadLikes(FilmStorage filmStorage) {
+        if (filmIds == null || userIds == null) {
+            throw new IllegalStateException("Сначала нужно загрузить фильмы и пользователей");
+        }
+        for (int i = 0; i < likes.size; i++) {
+            filmStorage.addLike(filmIds[likes.first(i)], userIds[likes.second(i)]);
+        }
+    }
+
+    void loadFriendships(UserStorage userStorage) {
+        if (userIds == null) {
+            throw new IllegalStateException("Сначала нужно загрузить пользователей");
+        }
+        for (int i = 0; i < friendships.size; i++) {
+            userStorage.addFriend(userIds[friendships.first(i)], userIds[friendships.second(i)]);
+        }
+    }
+
+    long filmId(int index) {
+        return filmIds[index];
+    }
+
+    long userId(int index) {
+        return userIds[index];
+    }
+
+    /**
+     * Поля фильма зависят только от seed и индекса, поэтому фильм можно пересоздать в любой момент.
+     */
+    Film film(int index) {
+        SplittableRandom random = new SplittableRandom(seed ^ (0x9E3779B97F4A7C15L * (index + 1)));
+        Film film = new Film();
+        film.setName("Film " + index);
+        film.setDescription("Synthetic description " + index + " " + "x".repeat(random.nextInt(20, 160)));
+        film.setReleaseDate(LocalDate.of(1950 + random.nextInt(75), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        film.setDuration(Duration.ofMinutes(60 + random.nextInt(120)));
+        return film;
+    }
+
+    User user(int index) {
+        SplittableRandom random = new SplittableRandom(~seed ^ (0x9E3779B97F4A7C15L * (index + 1)));
+        User user = new User();
+        user.setEmail("user" + index + "@synthetic.example.com");
+        user.setLogin("user" + index);
+        user.setName("User " + index);
+        user.setBirthday(LocalDate.of(1950 + random.nextInt(55), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        return user;
+    }
+
+    /**
+     * Активность пользователя — дискретное Парето со средним likesPerUser, фильм выбирается по Ципфу
+     * среди случайной перестановки каталога, чтобы популярность не совпадала с порядком id.
+     */
+    private void generateLikes(SplittableRandom random, int likesPerUser) {
+        if (likesPerUser == 0) {
+            return;
+        }
+        double[] cumulative = new double[filmCount];
+        double total = 0;
+        for (int rank = 0; rank < filmCount; rank++) {
+            total += 1.0 / Math.pow(rank + 1, FILMS_ZIPF_EXPONENT);
+            cumulative[rank] = total;
+        }
+        int[] filmByRank = shuffledIndexes(random, filmCount);
+        double minimum = likesPerUser * (LIKES_PARETO_ALPHA - 2) / (LIKES_PARETO_ALPHA - 1);
+        Set<Integer> liked = new HashSet<>();
+        for (int user = 0; user < userCount; user++) {
+            double pareto = minimum / Math.pow(1 - random.nextDouble(), 1 / (LIKES_PARETO_ALPHA - 1));
+            int count = (int) Math.min(filmCount, Math.round(pareto));
+            liked.clear();
+            for (int attempt = 0; liked.size() < count && attempt < count * 4; attempt++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                int film = filmByRank[Math.min(filmCount - 1, rank < 0 ? -rank - 1 : rank)];
+                if (liked.add(film)) {
+                    likes.add(film, user);
+                }
+            }
+        }
+    }
+
+    /**
+     * Каждый новый пользователь дружит с edgesPerUser уже существующими, выбранными пропорционально
+     * их числу друзей: случайный конец случайного уже созданного ребра.
+     */
+    private void generateFriendships(SplittableRandom random, int edgesPerUser) {
+        if (userCount < 2) {
+            return;
+        }
+        Set<Integer> chosen = new HashSet<>();
+        for (int user = 1; user < userCount; user++) {
+            int targets = Math.min(user, edgesPerUser);
+            chosen.clear();
+            while (chosen.size() < targets) {
+                int candidate = friendships.size == 0
+                        ? random.nextInt(user)
+                        : friendships.endpoint(random.nextInt(friendships.size * 2));
+                if (!chosen.add(candidate)) {
+                    chosen.add(random.nextInt(user));
+                }
+            }
+            for (int friend : chosen) {
+                friendships.add(user, friend);
+            }
+        }
+    }
+
+    private static int[] shuffledIndexes(SplittableRandom random, int size) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        return indexes;
+    }
+
+    private static final class IntPairs {
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int first, int second) {
+            if (size * 2 == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size * 2] = first;
+            values[size * 2 + 1] = second;
+            size++;
+        }
+
+        int first(int index) {
+            return values[index * 2];
+        }
+
+        int second(int index) {
+            return values[index * 2 + 1];
+        }
+
+        int endpoint(int index) {
+            return values[index];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size * 2);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticDatasetTest {
+
+    @Test
+    void generate_WithSameSeed_ShouldProduceSameDataset() {
+        SyntheticDataset first = SyntheticDataset.generate(7, 500, 800, 8, 6);
+        SyntheticDataset second = SyntheticDataset.generate(7, 500, 800, 8, 6);
+        SyntheticDataset other = SyntheticDataset.generate(8, 500, 800, 8, 6);
+
+        assertArrayEquals(first.likeEdges(), second.likeEdges());
+        assertArrayEquals(first.friendshipEdges(), second.friendshipEdges());
+        assertEquals(first.film(42), second.film(42));
+        assertEquals(first.user(42), second.user(42));
+        assertFalse(Arrays.equals(first.likeEdges(), other.likeEdges()));
+    }
+
+    @Test
+    void generate_ShouldProduceHeavyTailedDegrees() {
+        SyntheticDataset dataset = SyntheticDataset.generate(1, 2_000, 5_000, 10, 10);
+        int[] likesPerFilm = degrees(dataset.likeEdges(), 0, dataset.filmCount());
+        int[] friendsPerUser = new int[dataset.userCount()];
+        int[] friendships = dataset.friendshipEdges();
+        for (int value : friendships) {
+            friendsPerUser[value]++;
+        }
+
+        double meanLikes = (double) dataset.likeCount() / dataset.filmCount();
+        double meanFriends = 2.0 * dataset.friendshipCount() / dataset.userCount();
+        assertEquals(10, meanFriends, 0.5);
+        assertTrue(Arrays.stream(likesPerFilm).max().orElseThrow() > 20 * meanLikes);
+        assertTrue(Arrays.stream(friendsPerUser).max().orElseThrow() > 10 * meanFriends);
+    }
+
+    @Test
+    void loadInto_ShouldCreateEveryEntityAndEdge() {
+        SyntheticDataset dataset = SyntheticDataset.generate(3, 50, 100, 5, 4);
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+
+        dataset.loadInto(filmStorage, userStorage);
+
+        assertEquals(50, filmStorage.findAll().size());
+        assertEquals(100, userStorage.findAll().size());
+        assertEquals(dataset.likeCount(), filmStorage.findAll().stream().mapToInt(film -> film.getLikes().size()).sum());
+        assertEquals(2 * dataset.friendshipCount(), userStorage.findAll().stream()
+                .mapToInt(user -> user.getFriendsId().size())
+                .sum());
+        Film film = filmStorage.findById(dataset.filmId(0)).orElseThrow();
+        User user = userStorage.findById(dataset.userId(0)).orElseThrow();
+        assertEquals(dataset.film(0).getName(), film.getName());
+        assertEquals(dataset.user(0).getLogin(), user.getLogin());
+    }
+
+    private static int[] degrees(int[] pairs, int column, int size) {
+        int[] degrees = new int[size];
+        for (int i = column; i < pairs.length; i += 2) {
+            degrees[pairs[i]]++;
+        }
+        return degrees;
+    }
+}
@@ -0,0 +1,262 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.TieredFilmStorage;
+import ru.yandex.practicum.filmorate.storage.tiered.CacheStats;
+import ru.yandex.practicum.filmorate.storage.tiered.WTinyLfuCache;
+import ru.yandex.practicum.filmorate.storage.user.TieredUserStorage;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredStorageTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findById_AfterEviction_ShouldReadFilmBackFromColdTier() {
+        TieredFilmStorage storage = new TieredFilmStorage(2, directory);
+        Film first = storage.add(createValidFilm("First"));
+        storage.addLike(first.getId(), 7L);
+        for (int i = 0; i < 10; i++) {
+            storage.add(createValidFilm("Film " + i));
+        }
+
+        Film result = storage.findById(first.getId()).orElseThrow();
+
+        assertEquals("First", result.getName());
+        assertEquals(LocalDate.of(2020, 1, 1), result.getReleaseDate());
+        assertEquals(Duration.ofMinutes(120), result.getDuration());
+        assertTrue(result.getLikes().contains(7L));
+        assertEquals(11, storage.findAll().size());
+        assertTrue(storage.getStats().getEvictions() > 0);
+        assertTrue(storage.getStats().getColdSize() > 0);
+        storage.close();
+    }
+
+    @Test
+    void update_OfEvictedUser_ShouldKeepChangesAndUniqueIndex() {
+        TieredUserStorage storage = new TieredUserStorage(2, directory);
+        User first = storage.create(createValidUser(0));
+        for (int i = 1; i < 10; i++) {
+            storage.create(createValidUser(i));
+        }
+        User updatedUser = new User();
+        updatedUser.setId(first.getId());
+        updatedUser.setName("Updated Name");
+
+        storage.update(updatedUser);
+
+        assertEquals("Updated Name", storage.findByEmail("user0@example.com").orElseThrow().getName());
+        assertEquals(10, storage.findAll().size());
+        storage.close();
+    }
+
+    @Test
+    void delete_OfEvictedFilm_ShouldRemoveItFromColdTier() {
+        TieredFilmStorage storage = new TieredFilmStorage(2, directory);
+        Film first = storage.add(createValidFilm("First"));
+        for (int i = 0; i < 10; i++) {
+            storage.add(createValidFilm("Film " + i));
+        }
+
+        assertEquals("First", storage.delete(first.getId()).orElseThrow().getName());
+
+        assertTrue(storage.findById(first.getId()).isEmpty());
+        assertTrue(storage.delete(first.getId()).isEmpty());
+        assertEquals(10, storage.findAll().size());
+        storage.close();
+    }
+
+    @Test
+    void relations_ChangedAfterEviction_ShouldSurviveNextEviction() {
+        TieredUserStorage storage = new TieredUserStorage(2, directory);
+        User first = storage.create(createValidUser(0));
+        User second = storage.create(createValidUser(1));
+        for (int i = 2; i < 10; i++) {
+            storage.create(createValidUser(i));
+        }
+
+        storage.addFriend(first.getId(), second.getId());
+        storage.addLikedFilm(first.getId(), 42L);
+        for (int i = 2; i < 10; i++) {
+            storage.findById((long) i + 1);
+        }
+
+        User result = storage.findById(first.getId()).orElseThrow();
+        assertEquals(Set.of(second.getId()), result.getFriendsId());
+        assertEquals(Set.of(42L), result.getLikedFilmId());
+        assertEquals(Set.of(first.getId()), storage.findById(second.getId()).orElseThrow().getFriendsId());
+        assertEquals(Set.of(first.getId()), storage.findFriendIds(second.getId()));
+        assertEquals(Set.of(), storage.findFriendIds(999L));
+        assertThrows(UnsupportedOperationException.class, () -> result.getFriendsId().add(7L));
+        storage.close();
+    }
+
+    @Test
+    void edgeBatches_OnEvictedEntities_ShouldReachBothSides() {
+        TieredUserStorage users = new TieredUserStorage(2, directory);
+        TieredFilmStorage films = new TieredFilmStorage(2, directory);
+        List<Long> userIds = new ArrayList<>();
+        List<Long> filmIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            userIds.add(users.create(createValidUser(i)).getId());
+            filmIds.add(films.add(createValidFilm("Film " + i)).getId());
+        }
+        List<long[]> likes = List.of(new long[]{filmIds.get(0), userIds.get(1)},
+                new long[]{filmIds.get(0), userIds.get(1)}, new long[]{999, userIds.get(2)});
+
+        boolean[] added = films.addLikes(likes);
+        users.addLikedFilms(List.of(likes.get(0)));
+        users.addFriends(List.of(new long[]{userIds.get(0), userIds.get(9)}));
+
+        assertArrayEquals(new boolean[]{true, false, false}, added);
+        assertEquals(Set.of(userIds.get(1)), films.findById(filmIds.get(0)).orElseThrow().getLikes());
+        assertEquals(Set.of(filmIds.get(0)), users.findById(userIds.get(1)).orElseThrow().getLikedFilmId());
+        assertEquals(Set.of(userIds.get(9)), users.findFriendIds(userIds.get(0)));
+        assertEquals(Set.of(userIds.get(0)), users.findFriendIds(userIds.get(9)));
+        users.close();
+        films.close();
+    }
+
+    @Test
+    void compact_AfterRepeatedRespills_ShouldDropDeadRecordsAndKeepData() {
+        TieredFilmStorage storage = new TieredFilmStorage(2, directory);
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            films.add(storage.add(createValidFilm("Film " + i)));
+        }
+        for (long userId = 1; userId <= 20; userId++) {
+            for (Film film : films) {
+                storage.addLike(film.getId(), userId);
+            }
+        }
+        CacheStats before = storage.getStats();
+
+        storage.compact();
+
+        CacheStats after = storage.getStats();
+        assertTrue(before.getColdGarbageBytes() > 0);
+        assertEquals(0, after.getColdGarbageBytes());
+        assertEquals(before.getColdFileBytes() - before.getColdGarbageBytes(), after.getColdFileBytes());
+        for (Film film : films) {
+            assertEquals(20, storage.findById(film.getId()).orElseThrow().getLikes().size());
+        }
+        storage.close();
+    }
+
+    @Test
+    void coldReads_RacingWithCompaction_ShouldNotReturnStaleOrBrokenFilms() throws InterruptedException {
+        TieredFilmStorage storage = new TieredFilmStorage(2, directory);
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            films.add(storage.add(createValidFilm("Film " + i)));
+        }
+        int threads = 8;
+        int likesPerThread = 200;
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread compactor = new Thread(() -> {
+            while (running.get()) {
+                storage.compact();
+            }
+        });
+        List<Thread> workers = new ArrayList<>();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long userId = t + 1;
+            workers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < likesPerThread; i++) {
+                        Film film = films.get(i % films.size());
+                        storage.addLike(film.getId(), userId * 1000 + i);
+                        assertEquals(film.getName(), storage.findById(film.getId()).orElseThrow().getName());
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        compactor.start();
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        running.set(false);
+        compactor.join();
+
+        assertTrue(errors.isEmpty(), () -> "Ошибки в потоках: " + errors);
+        int likes = storage.findAll().stream().mapToInt(film -> film.getLikes().size()).sum();
+        assertEquals(threads * likesPerThread, likes);
+        storage.close();
+    }
+
+    @Test
+    void wTinyLfu_UnderZipfianAccess_ShouldKeepHotKeys() {
+        int keys = 100_000;
+        WTinyLfuCache<Long> cache = new WTinyLfuCache<>(keys / 100, (key, value) -> { });
+        ZipfGenerator zipf = new ZipfGenerator(keys, 0.99, 42);
+        for (int i = 0; i < 500_000; i++) {
+            long key = zipf.next();
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+        }
+
+        double hitRate = (double) cache.getHits() / (cache.getHits() + cache.getMisses());
+        assertTrue(hitRate > 0.45, "hit rate " + hitRate);
+    }
+
+    private Film createValidFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(2020, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+
+    private User createValidUser(int number) {
+        User user = new User();
+        user.setEmail("user" + number + "@example.com");
+        user.setLogin("login" + number);
+        user.setName("User Name");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private static class ZipfGenerator {
+        private final double[] cumulative;
+        private final SplittableRandom random;
+
+        ZipfGenerator(int size, double skew, long seed) {
+            cumulative = new double[size];
+            double sum = 0;
+            for (int rank = 1; rank <= size; rank++) {
+                sum += 1 / Math.pow(rank, skew);
+                cumulative[rank - 1] = sum;
+            }
+            for (int i = 0; i < size; i++) {
+                cumulative[i] /= sum;
+            }
+            random = new SplittableRandom(seed);
+        }
+
+        long next() {
+            int index = java.util.Arrays.binarySearch(cumulative, random.nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1;
+        }
+    }
+}
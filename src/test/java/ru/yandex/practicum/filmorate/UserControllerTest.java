@@ -1,27 +1,52 @@
 package ru.yandex.practicum.filmorate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
 import ru.yandex.practicum.filmorate.controller.UserController;
+import ru.yandex.practicum.filmorate.exception.AlreadyExistsException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.service.FriendGraphAnalyticsService;
+import ru.yandex.practicum.filmorate.model.FriendGraphStats;
+import ru.yandex.practicum.filmorate.model.FeedEvent;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserPatch;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 class UserControllerTest {
 
+    private static final AtomicInteger userNumber = new AtomicInteger();
+
     @Autowired
     private UserController userController;
 
+    @Autowired
+    private FriendGraphAnalyticsService friendGraphAnalyticsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     void createUser_WithValidData_ShouldCreateUserSuccessfully() {
         User user = createValidUser();
+        user.setEmail("user@example.com");
+        user.setLogin("login");
 
         User result = userController.create(user);
 
@@ -36,10 +61,11 @@ class UserControllerTest {
     void createUser_WithNullName_ShouldUseLoginAsName() {
         User user = createValidUser();
         user.setName(null);
+        String login = user.getLogin();
 
         User result = userController.create(user);
 
-        assertEquals("login", result.getName());
+        assertEquals(login, result.getName());
     }
 
     @Test
@@ -91,12 +117,13 @@ class UserControllerTest {
     }
 
     @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
     void findAll_WhenNoUsers_ShouldReturnEmptyCollection() {
-        userController.findAll().clear();
         assertTrue(userController.findAll().isEmpty());
     }
 
     @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
     void findAll_WhenUsersExist_ShouldReturnAllUsers() {
         User user1 = userController.create(createValidUser());
 
@@ -127,10 +154,230 @@ class UserControllerTest {
         assertEquals(originalUser.getId(), result.getId());
     }
 
+    @Test
+    void patchUser_WithOnlyName_ShouldKeepOtherFields() {
+        User originalUser = userController.create(createValidUser());
+        String login = originalUser.getLogin();
+        UserPatch patch = new UserPatch();
+        patch.setName("Patched Name");
+
+        User result = userController.patch(originalUser.getId(), patch);
+
+        assertEquals("Patched Name", result.getName());
+        assertEquals(login, result.getLogin());
+        assertEquals(LocalDate.of(2000, 1, 1), result.getBirthday());
+    }
+
+    @Test
+    void patchUser_WithExplicitNulls_ShouldResetNameAndClearBirthday() throws Exception {
+        User originalUser = userController.create(createValidUser());
+        UserPatch patch = objectMapper.readValue("{\"name\": null, \"birthday\": null}", UserPatch.class);
+        UserPatch nullEmail = objectMapper.readValue("{\"email\": null}", UserPatch.class);
+
+        User result = userController.patch(originalUser.getId(), patch);
+
+        assertEquals(result.getLogin(), result.getName());
+        assertNull(result.getBirthday());
+        assertNotNull(result.getEmail());
+        assertThrows(ValidationException.class, () -> userController.patch(originalUser.getId(), nullEmail));
+    }
+
+    @Test
+    void patchUser_WithLoginContainingSpaces_ShouldThrowValidationException() {
+        User originalUser = userController.create(createValidUser());
+        UserPatch patch = new UserPatch();
+        patch.setLogin("login with spaces");
+
+        assertThrows(ConstraintViolationException.class, () -> userController.patch(originalUser.getId(), patch));
+    }
+
+    @Test
+    void patchUser_WithNonExistentId_ShouldThrowNotFoundException() {
+        UserPatch patch = new UserPatch();
+        patch.setName("Patched Name");
+
+        assertThrows(NotFoundException.class, () -> userController.patch(999L, patch));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void friendGraphStats_ShouldReportComponentsAndClustering() {
+        User user1 = userController.create(createValidUser());
+        User user2 = userController.create(createValidUser());
+        User user3 = userController.create(createValidUser());
+        userController.create(createValidUser());
+        userController.addFriend(user1.getId(), user2.getId());
+        userController.addFriend(user2.getId(), user3.getId());
+        userController.addFriend(user3.getId(), user1.getId());
+
+        friendGraphAnalyticsService.refresh();
+        FriendGraphStats stats = userController.getFriendGraphStats();
+
+        assertEquals(4, stats.getUsers());
+        assertEquals(3, stats.getFriendships());
+        assertEquals(2, stats.getComponents());
+        assertEquals(3, stats.getLargestComponent());
+        assertEquals(1, stats.getIsolatedUsers());
+        assertEquals(1.0, stats.getClusteringCoefficient());
+    }
+
+    @Test
+    void friendGraphStats_BeforeFirstRefresh_ShouldBeUnavailableAndStartSingleBackgroundRefresh()
+            throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger scans = new AtomicInteger();
+        InMemoryUserStorage storage = new InMemoryUserStorage() {
+            @Override
+            public Collection<User> findAll() {
+                scans.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.findAll();
+            }
+        };
+        storage.create(createValidUser());
+        FriendGraphAnalyticsService service = new FriendGraphAnalyticsService(storage, 100);
+        try {
+            for (int i = 0; i < 10; i++) {
+                assertThrows(ServiceUnavailableException.class, service::getStats);
+            }
+            release.countDown();
+
+            FriendGraphStats stats = null;
+            for (int attempt = 0; attempt < 100 && stats == null; attempt++) {
+                try {
+                    stats = service.getStats();
+                } catch (ServiceUnavailableException e) {
+                    Thread.sleep(50);
+                }
+            }
+            assertNotNull(stats);
+            assertEquals(1, stats.getUsers());
+            assertEquals(1, scans.get());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void friendGraphStats_ShouldBucketDegreesByPowersOfTwoAndRankHubs() {
+        User hub = userController.create(createValidUser());
+        User first = userController.create(createValidUser());
+        User second = userController.create(createValidUser());
+        User third = userController.create(createValidUser());
+        User fourth = userController.create(createValidUser());
+        userController.create(createValidUser());
+        userController.addFriend(hub.getId(), first.getId());
+        userController.addFriend(hub.getId(), second.getId());
+        userController.addFriend(hub.getId(), third.getId());
+        userController.addFriend(hub.getId(), fourth.getId());
+        userController.addFriend(first.getId(), second.getId());
+
+        FriendGraphStats stats = friendGraphAnalyticsService.refresh();
+
+        assertEquals(Map.of("0", 1, "1", 2, "2-3", 2, "4-7", 1), stats.getDegreeHistogram());
+        assertEquals(List.of("0", "1", "2-3", "4-7"), List.copyOf(stats.getDegreeHistogram().keySet()));
+        assertEquals(new FriendGraphStats.Hub(hub.getId(), 4), stats.getTopHubs().get(0));
+        assertEquals(List.of(4, 2, 2, 1, 1, 0), stats.getTopHubs().stream()
+                .map(FriendGraphStats.Hub::getFriendsCount)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void createUser_WithDuplicateEmailInOtherCase_ShouldThrowAlreadyExistsException() {
+        User user = userController.create(createValidUser());
+        User duplicate = createValidUser();
+        duplicate.setEmail(user.getEmail().toUpperCase());
+
+        assertThrows(AlreadyExistsException.class, () -> userController.create(duplicate));
+    }
+
+    @Test
+    void updateUser_WithLoginOfAnotherUser_ShouldThrowAlreadyExistsException() {
+        User user = userController.create(createValidUser());
+        User other = userController.create(createValidUser());
+        String email = other.getEmail();
+        User updatedUser = createValidUser();
+        updatedUser.setId(other.getId());
+        updatedUser.setLogin(user.getLogin());
+
+        assertThrows(AlreadyExistsException.class, () -> userController.update(updatedUser));
+        assertEquals(email, other.getEmail());
+        assertEquals(other, userController.findByEmail(email));
+    }
+
+    @Test
+    void findByEmailAndLogin_ShouldReturnUserAfterUpdate() {
+        User user = userController.create(createValidUser());
+        UserPatch patch = new UserPatch();
+        patch.setEmail("Renamed" + user.getId() + "@example.com");
+
+        userController.patch(user.getId(), patch);
+
+        assertEquals(user, userController.findByEmail(" renamed" + user.getId() + "@EXAMPLE.com"));
+        assertEquals(user, userController.findByLogin(user.getLogin()));
+        assertThrows(NotFoundException.class, () -> userController.findByEmail("missing@example.com"));
+    }
+
+    @Test
+    void findFriendPath_ShouldReturnShortestChain() {
+        User start = userController.create(createValidUser());
+        User middle = userController.create(createValidUser());
+        User detour1 = userController.create(createValidUser());
+        User detour2 = userController.create(createValidUser());
+        User end = userController.create(createValidUser());
+        userController.addFriend(start.getId(), detour1.getId());
+        userController.addFriend(detour1.getId(), detour2.getId());
+        userController.addFriend(detour2.getId(), end.getId());
+        userController.addFriend(start.getId(), middle.getId());
+        userController.addFriend(middle.getId(), end.getId());
+
+        List<User> path = userController.findFriendPath(start.getId(), end.getId(), 6);
+
+        assertEquals(List.of(start.getId(), middle.getId(), end.getId()),
+                path.stream().map(User::getId).collect(Collectors.toList()));
+        assertThrows(NotFoundException.class,
+                () -> userController.findFriendPath(start.getId(), end.getId(), 1));
+    }
+
+    @Test
+    void findFriendPath_BetweenUnconnectedUsers_ShouldThrowNotFoundException() {
+        User user = userController.create(createValidUser());
+        User friend = userController.create(createValidUser());
+        User stranger = userController.create(createValidUser());
+        userController.addFriend(user.getId(), friend.getId());
+
+        assertThrows(NotFoundException.class,
+                () -> userController.findFriendPath(user.getId(), stranger.getId(), 6));
+        assertEquals(List.of(user), userController.findFriendPath(user.getId(), user.getId(), 6));
+    }
+
+    @Test
+    void getFeed_ShouldShowFriendshipsOfFriends() {
+        User reader = userController.create(createValidUser());
+        User friend = userController.create(createValidUser());
+        User newcomer = userController.create(createValidUser());
+        userController.addFriend(reader.getId(), friend.getId());
+        userController.addFriend(friend.getId(), newcomer.getId());
+
+        List<FeedEvent> feed = userController.getFeed(reader.getId(), 20, null);
+
+        assertEquals(1, feed.size());
+        assertEquals(friend.getId(), feed.get(0).getUserId());
+        assertEquals(FeedEvent.Type.FRIEND, feed.get(0).getType());
+        assertEquals(newcomer.getId(), feed.get(0).getEntityId());
+        assertThrows(NotFoundException.class, () -> userController.getFeed(999_999L, 20, null));
+    }
+
     private User createValidUser() {
+        int number = userNumber.incrementAndGet();
         User user = new User();
-        user.setEmail("user@example.com");
-        user.setLogin("login");
+        user.setEmail("user" + number + "@example.com");
+        user.setLogin("login" + number);
         user.setName("User Name");
         user.setBirthday(LocalDate.of(2000, 1, 1));
         return user;